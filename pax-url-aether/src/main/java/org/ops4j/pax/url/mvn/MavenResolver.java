@@ -18,6 +18,13 @@ package org.ops4j.pax.url.mvn;
 import java.io.Closeable;
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * <p>A Maven resolver service</p>
@@ -60,6 +67,82 @@ public interface MavenResolver extends Closeable {
                   String extension, String version,
                   Exception previousException ) throws IOException;
 
+    /**
+     * Resolve and download a collection of maven based urls. Implementations may resolve all the artifacts
+     * in single resolution round instead of one round per url.
+     * Returned list contains resolved files in the iteration order of passed urls.
+     */
+    default List<File> resolveAll( Collection<String> urls ) throws IOException
+    {
+        List<File> files = new ArrayList<>( urls.size() );
+        for( String url : urls )
+        {
+            files.add( resolve( url ) );
+        }
+        return files;
+    }
+
+    /**
+     * Resolve and download a maven based url without blocking the caller. Implementations should resolve
+     * the artifact using own executor. Default implementation resolves the artifact in calling thread.
+     */
+    default CompletableFuture<File> resolveAsync( String url )
+    {
+        CompletableFuture<File> future = new CompletableFuture<>();
+        try
+        {
+            future.complete( resolve( url ) );
+        }
+        catch( IOException | RuntimeException e )
+        {
+            future.completeExceptionally( e );
+        }
+        return future;
+    }
+
+    /**
+     * Resolve and download an artifact without blocking the caller. Implementations should resolve
+     * the artifact using own executor. Default implementation resolves the artifact in calling thread.
+     */
+    default CompletableFuture<File> resolveAsync( String groupId, String artifactId, String classifier,
+                                                  String extension, String version )
+    {
+        CompletableFuture<File> future = new CompletableFuture<>();
+        try
+        {
+            future.complete( resolve( groupId, artifactId, classifier, extension, version ) );
+        }
+        catch( IOException | RuntimeException e )
+        {
+            future.completeExceptionally( e );
+        }
+        return future;
+    }
+
+    /**
+     * <p>Resolve a maven based url and make the resolved artifact available at <code>target</code> path.
+     * Implementations should avoid copying the data when possible - by creating a hard link to the file in
+     * local repository or (where filesystem supports it) a reflink (copy-on-write clone). Only then the content
+     * should be copied.</p>
+     *
+     * <p>Because hard link shares the data with local repository, callers should never modify
+     * the materialized file in place. Default implementation always copies resolved file.</p>
+     *
+     * @param url maven based url of the artifact
+     * @param target path of the file to create (or replace)
+     * @return strategy that was used to create <code>target</code>
+     */
+    default Materialization materialize( String url, Path target ) throws IOException
+    {
+        File file = resolve( url );
+        if( target.getParent() != null )
+        {
+            Files.createDirectories( target.getParent() );
+        }
+        Files.copy( file.toPath(), target, StandardCopyOption.REPLACE_EXISTING );
+        return Materialization.COPY;
+    }
+
     /**
      * Resolve the maven metadata xml for the specified groupId:artifactId:version
      */
@@ -93,6 +176,18 @@ public interface MavenResolver extends Closeable {
      */
     RetryChance isRetryableException(Exception exception);
 
+    /**
+     * Strategies used to {@link #materialize(String, Path) materialize} resolved artifact at given path
+     */
+    enum Materialization {
+        /** Target is a hard link to the file in local repository - no data was copied */
+        HARD_LINK,
+        /** Target is a copy-on-write clone of the file in local repository - no data was copied */
+        REFLINK,
+        /** Content of the file was copied */
+        COPY
+    }
+
     /**
      * Enumeration of retry hints that may be used by client code when trying to repeat failed resolution attempt
      */
@@ -0,0 +1,138 @@
+/*
+ * Copyright 2023 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.url.mvn;
+
+import java.util.Map;
+
+/**
+ * <p>Timings and counters of Maven resolution performed by {@link MavenResolver}.</p>
+ *
+ * <p>This interface is registered as OSGi service and as platform MXBean with {@link #OBJECT_NAME} name.
+ * The statistics are kept for the lifetime of the bundle - they're not reset when the configuration changes.</p>
+ *
+ * <p>Timers are named after resolution stages:</p>
+ * <ul>
+ *     <li>{@code selectDefaultRepositories} - preparation of the list of <em>default</em> repositories</li>
+ *     <li>{@code defaultRepositories} - whole first stage, checking all <em>default</em> repositories</li>
+ *     <li>{@code defaultRepository.<id>} - check of single <em>default</em> repository</li>
+ *     <li>{@code versionRange} - resolution of version range using remote repositories</li>
+ *     <li>{@code remoteArtifact} - resolution of artifact using remote repositories</li>
+ *     <li>{@code remoteArtifact.<id>} - successful resolution of artifact, by the repository which provided
+ *     the artifact (local repository has {@code local} id)</li>
+ *     <li>{@code metadata} - resolution of metadata</li>
+ * </ul>
+ */
+public interface MavenResolverMetrics {
+
+    /**
+     * JMX object name of the metrics MXBean
+     */
+    String OBJECT_NAME = "org.ops4j.pax.url:type=MavenResolverMetrics";
+
+    /**
+     * Latency statistics of resolution stages by stage name
+     * @return
+     */
+    Map<String, Timer> getTimers();
+
+    /**
+     * Current values of counters (like resolution cache hits or session pool statistics) by name
+     * @return
+     */
+    Map<String, Long> getCounters();
+
+    /**
+     * Statistics of downloads from remote repositories by repository id (after mirror selection)
+     * @return
+     */
+    Map<String, Transfers> getTransfers();
+
+    /**
+     * Clears all timers, counters and transfer statistics (session pool statistics are not affected)
+     */
+    void reset();
+
+    /**
+     * Statistics of single stage. Latencies are in microseconds and percentiles are precise up to 1/8 of
+     * the value (the recorded values are kept in logarithmic buckets).
+     */
+    interface Timer {
+
+        /**
+         * Number of recorded operations (including failed ones)
+         * @return
+         */
+        long getCount();
+
+        /**
+         * Number of failed operations
+         * @return
+         */
+        long getErrors();
+
+        long getMeanMicros();
+
+        long getMaxMicros();
+
+        long getP50Micros();
+
+        long getP90Micros();
+
+        long getP99Micros();
+
+        long getP999Micros();
+    }
+
+    /**
+     * Download statistics of single remote repository. Time is a sum of durations of successful downloads,
+     * so {@link #getBytesPerSecond()} is the average throughput of single download, even if there
+     * were concurrent downloads.
+     */
+    interface Transfers {
+
+        /**
+         * Number of successful downloads
+         * @return
+         */
+        long getSucceeded();
+
+        /**
+         * Number of failed downloads (without downloads of resources that don't exist in the repository)
+         * @return
+         */
+        long getFailed();
+
+        /**
+         * Number of downloads of resources that don't exist in the repository
+         * @return
+         */
+        long getNotFound();
+
+        /**
+         * Number of downloads with checksum mismatch - each such download is retried or fails depending on
+         * checksum policy
+         * @return
+         */
+        long getChecksumFailures();
+
+        long getBytes();
+
+        long getTimeMillis();
+
+        long getBytesPerSecond();
+    }
+
+}
@@ -267,6 +267,146 @@ public interface ServiceConstants
      */
     String PROPERTY_USE_SYSTEM_PROPERTIES = "useSystemProperties";
 
+    /**
+     * Number of threads used by {@link MavenResolver#resolveAsync} methods. Defaults to {@code 8}.
+     */
+    String PROPERTY_ASYNC_THREADS = "asyncThreads";
+
+    /**
+     * If set to {@code true} and running on JDK with virtual threads support, {@link MavenResolver#resolveAsync}
+     * methods use new virtual thread for each resolution instead of a pool of {@link #PROPERTY_ASYNC_THREADS}
+     * platform threads. Defaults to {@code false}.
+     */
+    String PROPERTY_ASYNC_VIRTUAL_THREADS = "asyncVirtualThreads";
+
+    /**
+     * Maximum number of resolved (non-SNAPSHOT, non-range) artifacts remembered by the resolver, so repeated
+     * resolution of the same artifact doesn't involve Maven Resolver at all. Entries expire according to
+     * update policy of the remote repositories used. {@code 0} disables the cache. Defaults to {@code 1000}.
+     */
+    String PROPERTY_RESOLUTION_CACHE_SIZE = "resolutionCacheSize";
+
+    /**
+     * Maximum number of merged metadata files (see {@link org.ops4j.pax.url.mvn.MavenResolver#resolveMetadata})
+     * remembered by the resolver. Entries expire according to update policy of the remote repositories or
+     * when any of the metadata files of individual repositories changes. {@code 0} disables the cache.
+     * Defaults to {@code 1000}.
+     */
+    String PROPERTY_METADATA_CACHE_SIZE = "metadataCacheSize";
+
+    /**
+     * Time (in milliseconds) for which the resolver remembers that an artifact is missing from a <em>default</em>
+     * repository, unless the directory where the artifact would be is changed earlier. {@code 0} disables
+     * this cache. Defaults to {@code 300000} (5 minutes).
+     */
+    String PROPERTY_DEFAULT_REPOSITORY_MISS_TTL = "defaultRepositoryMissTtl";
+
+    /**
+     * When set to {@code true}, content of each <em>default</em> repository is indexed and the index is used
+     * to check artifacts and version ranges with minimal file system access - only modification time of the
+     * deepest indexed directory is checked when an artifact is not in the index. The index is rebuilt when a change
+     * is detected, so this option is suitable for rarely changing default repositories (like Karaf's
+     * {@code system/} directory). Defaults to {@code false}.
+     */
+    String PROPERTY_DEFAULT_REPOSITORY_INDEX = "defaultRepositoryIndex";
+
+    /**
+     * Directory where indexes of <em>default</em> repositories are stored. It has to be owned (and writable only)
+     * by current user. Defaults to {@code ${java.io.tmpdir}/pax-url-aether-index-${user.name}}.
+     */
+    String PROPERTY_DEFAULT_REPOSITORY_INDEX_DIRECTORY = "defaultRepositoryIndexDirectory";
+
+    /**
+     * When set to {@code true}, all <em>default</em> repositories are checked at the same time when resolving
+     * artifacts without version ranges. The artifact from first repository (in configured order) that contains
+     * it is still returned. Defaults to {@code false}.
+     */
+    String PROPERTY_PARALLEL_DEFAULT_REPOSITORIES = "parallelDefaultRepositories";
+
+    /**
+     * When set to {@code true}, {@code maven-metadata.xml} is downloaded and parsed from each remote repository
+     * at the same time. Repositories that don't respond within {@link #PROPERTY_PARALLEL_METADATA_TIMEOUT} are
+     * skipped and metadata merged from other repositories is returned. Defaults to {@code false}.
+     */
+    String PROPERTY_PARALLEL_METADATA = "parallelMetadata";
+
+    /**
+     * Time (in milliseconds) to wait for metadata of single remote repository when
+     * {@link #PROPERTY_PARALLEL_METADATA} is enabled. It's used as connect and request timeout (if these are
+     * higher) for metadata downloads and as the limit of the whole download - repositories that are still
+     * sending the data after this time are skipped. Defaults to {@code 30000}.
+     */
+    String PROPERTY_PARALLEL_METADATA_TIMEOUT = "parallelMetadataTimeout";
+
+    /**
+     * Maximum number of threads used for operations performed in parallel within single resolution
+     * (like checking default repositories with {@link #PROPERTY_PARALLEL_DEFAULT_REPOSITORIES} or resolving metadata
+     * with {@link #PROPERTY_PARALLEL_METADATA}). Defaults to {@code 8}.
+     */
+    String PROPERTY_PARALLEL_THREADS = "parallelThreads";
+
+    /**
+     * Number of sessions created for each local and default repository when the resolver is created and kept
+     * in the pool even when not used. Defaults to {@code 1}.
+     */
+    String PROPERTY_SESSION_POOL_MIN = "sessionPool.min";
+
+    /**
+     * Maximum number of sessions used at the same time for single local or default repository. Defaults to {@code 32}.
+     */
+    String PROPERTY_SESSION_POOL_MAX = "sessionPool.max";
+
+    /**
+     * Time (in milliseconds) to wait for a session when {@link #PROPERTY_SESSION_POOL_MAX} sessions are already
+     * used. After that time, new session is created outside of the pool. Defaults to {@code 1000}.
+     */
+    String PROPERTY_SESSION_POOL_MAX_WAIT = "sessionPool.maxWait";
+
+    /**
+     * Time (in milliseconds) after which unused sessions are removed from the pool. Defaults to {@code 300000}
+     * (5 minutes).
+     */
+    String PROPERTY_SESSION_POOL_IDLE_TIMEOUT = "sessionPool.idleTimeout";
+
+    /**
+     * When set to {@code true}, artifacts with fixed release versions that are already available in <em>default</em>
+     * or local repository are returned directly after checking local repository layout (including split
+     * repositories) and tracking files - without full Maven Resolver resolution. Maven Resolver is used only
+     * when the artifact is not found this way. Always enabled in {@link #PROPERTY_OFFLINE offline} mode.
+     * Defaults to {@code false}.
+     */
+    String PROPERTY_LOCAL_FAST_PATH = "localFastPath";
+
+    /**
+     * When set to {@code true}, {@code @multi} directories of <em>default</em> and remote repositories are
+     * watched for new or removed child repositories (using {@link java.nio.file.WatchService} with own thread),
+     * so repositories are refreshed before next resolution. Modification times of the directories are still
+     * checked during resolution. Resolver has to be closed to stop watching. Defaults to {@code false}.
+     */
+    String PROPERTY_WATCH_MULTI_DIRECTORIES = "watchMultiDirectories";
+
+    /**
+     * When set to {@code true}, remote repositories are not tried in configured order, but in order based on
+     * observed hit rate (per repository and per {@code groupId} prefix) and response time, so repositories
+     * that usually don't have the artifact or respond slowly are tried later. Every 10th resolution uses the
+     * configured order, so statistics of all the repositories are kept up to date. Defaults to {@code false}.
+     */
+    String PROPERTY_ADAPTIVE_REPOSITORY_ORDER = "adaptiveRepositoryOrder";
+
+    /**
+     * Comma-separated ids of remote repositories (or repositories mirrored by them) which keep strict priority
+     * when {@link #PROPERTY_ADAPTIVE_REPOSITORY_ORDER} is enabled - they're always tried first in configured order.
+     */
+    String PROPERTY_ADAPTIVE_REPOSITORY_ORDER_PINNED = "adaptiveRepositoryOrder.pinned";
+
+    /**
+     * When set to {@code true}, {@link org.ops4j.pax.url.mvn.MavenResolver#materialize materialization} of an
+     * artifact that can't be hard linked tries to create a reflink (copy-on-write clone) by starting
+     * {@code cp --reflink=always} (Linux) or {@code cp -c} (macOS) process before copying the content.
+     * Defaults to {@code false}.
+     */
+    String PROPERTY_MATERIALIZE_REFLINK = "materialize.reflink";
+
     // ---- Options that can be specified and used for Maven Repository URLs
 
     /**
@@ -16,14 +16,20 @@
 package org.ops4j.pax.url.mvn.internal;
 
 import java.io.IOException;
+import java.lang.management.ManagementFactory;
 import java.lang.reflect.Method;
 import java.net.URL;
 import java.net.URLConnection;
 import java.util.Dictionary;
 import java.util.Hashtable;
 import java.util.concurrent.atomic.AtomicReference;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
 
 import org.ops4j.pax.url.mvn.MavenResolver;
+import org.ops4j.pax.url.mvn.MavenResolverMetrics;
 import org.ops4j.pax.url.mvn.ServiceConstants;
 import org.ops4j.pax.url.mvn.internal.config.MavenConfigurationImpl;
 import org.ops4j.util.property.DictionaryPropertyResolver;
@@ -72,6 +78,14 @@ public class Activator extends AbstractURLStreamHandlerService implements Bundle
      * Managed service registration. Used for cleanup.
      */
     private final AtomicReference<ServiceRegistration<MavenResolver>> m_resolverReg = new AtomicReference<>();
+    /**
+     * Metrics service registration. Used for cleanup.
+     */
+    private ServiceRegistration<MavenResolverMetrics> m_metricsReg;
+    /**
+     * Name of registered metrics MXBean. Used for cleanup.
+     */
+    private ObjectName m_metricsName;
 
     /**
      * Registers Handler as a wrap: protocol stream handler service and as a configuration managed service if
@@ -114,6 +128,7 @@ public class Activator extends AbstractURLStreamHandlerService implements Bundle
             m_managedServiceReg.unregister();
             m_managedServiceReg = null;
         }
+        unregisterMetrics();
         ServiceRegistration<MavenResolver> registration = m_resolverReg.getAndSet( null );
         if ( registration != null )
         {
@@ -145,6 +160,50 @@ public class Activator extends AbstractURLStreamHandlerService implements Bundle
                 props);
     }
 
+    /**
+     * Register the metrics as a service and as platform MXBean. The metrics are shared by all resolvers
+     * created after configuration changes, so this is done once.
+     */
+    private void registerMetrics( MavenResolverMetrics metrics )
+    {
+        m_metricsReg = safeRegisterService(
+                MavenResolverMetrics.class,
+                metrics,
+                new Hashtable<>());
+        try
+        {
+            ObjectName name = new ObjectName( MavenResolverMetrics.OBJECT_NAME );
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            server.registerMBean( new StandardMBean( metrics, MavenResolverMetrics.class, true ), name );
+            m_metricsName = name;
+        }
+        catch ( JMException | RuntimeException e )
+        {
+            LOG.warn( "Unable to register {} MXBean: {}", MavenResolverMetrics.OBJECT_NAME, e.getMessage() );
+        }
+    }
+
+    private void unregisterMetrics()
+    {
+        if ( m_metricsReg != null )
+        {
+            m_metricsReg.unregister();
+            m_metricsReg = null;
+        }
+        if ( m_metricsName != null )
+        {
+            try
+            {
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean( m_metricsName );
+            }
+            catch ( JMException | RuntimeException e )
+            {
+                // Ignore
+            }
+            m_metricsName = null;
+        }
+    }
+
     /**
      * Registers a managed service to listen on configuration updates.
      */
@@ -189,7 +248,10 @@ public class Activator extends AbstractURLStreamHandlerService implements Bundle
              return;
         }
 
-        MavenResolver resolver = new AetherBasedResolver(mavenConfig);
+        // sessions, caches and repository system of current resolver are reused if possible
+        MavenResolver current = m_resolver.get();
+        AetherBasedResolver resolver = new AetherBasedResolver(mavenConfig, null,
+                current instanceof AetherBasedResolver ? (AetherBasedResolver) current : null);
         MavenResolver oldResolver = m_resolver.getAndSet( resolver );
         Dictionary<String, Object> properties = new Hashtable<>();
         properties.put("configuration", config == null ? "bundlecontext" : "configadmin");
@@ -210,6 +272,7 @@ public class Activator extends AbstractURLStreamHandlerService implements Bundle
         } else {
             // first registration of URLStreamHandlerService
             registerHandler();
+            registerMetrics(resolver.getMetrics());
         }
     }
 
@@ -17,39 +17,56 @@
 package org.ops4j.pax.url.mvn.internal;
 
 import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.StringWriter;
 import java.net.ConnectException;
 import java.net.MalformedURLException;
 import java.net.NoRouteToHostException;
 import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
-import java.util.Deque;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentLinkedDeque;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import eu.maveniverse.maven.mima.runtime.shared.StandaloneRuntimeSupport;
-import org.apache.maven.artifact.repository.metadata.SnapshotVersion;
-import org.apache.maven.artifact.repository.metadata.Versioning;
-import org.apache.maven.artifact.repository.metadata.io.xpp3.MetadataXpp3Reader;
-import org.apache.maven.artifact.repository.metadata.io.xpp3.MetadataXpp3Writer;
 import org.apache.maven.repository.internal.MavenRepositorySystemUtils;
 import org.apache.maven.settings.Mirror;
 import org.apache.maven.settings.Server;
 import org.apache.maven.settings.Settings;
+import org.apache.maven.settings.io.xpp3.SettingsXpp3Writer;
 import org.codehaus.plexus.util.xml.Xpp3Dom;
 import org.eclipse.aether.ConfigurationProperties;
 import org.eclipse.aether.DefaultRepositorySystemSession;
@@ -63,6 +80,8 @@ import org.eclipse.aether.metadata.DefaultMetadata;
 import org.eclipse.aether.metadata.Metadata;
 import org.eclipse.aether.repository.Authentication;
 import org.eclipse.aether.repository.AuthenticationSelector;
+import org.eclipse.aether.repository.LocalArtifactRequest;
+import org.eclipse.aether.repository.LocalArtifactResult;
 import org.eclipse.aether.repository.LocalRepository;
 import org.eclipse.aether.repository.LocalRepositoryManager;
 import org.eclipse.aether.repository.MirrorSelector;
@@ -78,26 +97,33 @@ import org.eclipse.aether.resolution.MetadataResult;
 import org.eclipse.aether.resolution.VersionRangeRequest;
 import org.eclipse.aether.resolution.VersionRangeResolutionException;
 import org.eclipse.aether.resolution.VersionRangeResult;
+import org.eclipse.aether.transfer.AbstractTransferListener;
 import org.eclipse.aether.transfer.ArtifactNotFoundException;
 import org.eclipse.aether.transfer.ArtifactTransferException;
 import org.eclipse.aether.transfer.MetadataNotFoundException;
 import org.eclipse.aether.transfer.MetadataTransferException;
+import org.eclipse.aether.transfer.TransferCancelledException;
+import org.eclipse.aether.transfer.TransferEvent;
+import org.eclipse.aether.transfer.TransferListener;
+import org.eclipse.aether.util.ConfigUtils;
+import org.eclipse.aether.util.listener.ChainedTransferListener;
 import org.eclipse.aether.util.repository.AuthenticationBuilder;
 import org.eclipse.aether.util.repository.ConservativeAuthenticationSelector;
 import org.eclipse.aether.util.repository.DefaultAuthenticationSelector;
 import org.eclipse.aether.util.repository.DefaultMirrorSelector;
 import org.eclipse.aether.util.repository.DefaultProxySelector;
 import org.eclipse.aether.util.repository.SimpleResolutionErrorPolicy;
-import org.eclipse.aether.util.version.GenericVersionScheme;
 import org.eclipse.aether.version.InvalidVersionSpecificationException;
 import org.eclipse.aether.version.Version;
 import org.eclipse.aether.version.VersionConstraint;
 import org.ops4j.lang.NullArgumentException;
 import org.ops4j.pax.url.mvn.MavenResolver;
+import org.ops4j.pax.url.mvn.MavenResolverMetrics;
 import org.ops4j.pax.url.mvn.MirrorInfo;
 import org.ops4j.pax.url.mvn.ServiceConstants;
 import org.ops4j.pax.url.mvn.internal.config.MavenConfiguration;
 import org.ops4j.pax.url.mvn.internal.config.MavenRepositoryURL;
+import org.ops4j.util.property.PropertyResolver;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -126,8 +152,38 @@ public class AetherBasedResolver implements MavenResolver {
     // type for LocalRepository managed by EnhancedLocalRepositoryManager
     private static final String ENHANCED_REPOSITORY_TYPE = "default";
 
-    // see org.eclipse.aether.internal.impl.DefaultUpdateCheckManager#SESSION_CHECKS
-    private static final String SESSION_CHECKS = "updateCheckManager.checks";
+    // changes of these properties require new sessions and clearing the caches. Properties that only select
+    // remote repositories or configure resolver's threads and caches are not listed
+    private static final List<String> SESSION_PROPERTIES = Arrays.asList(
+            ServiceConstants.PROPERTY_OFFLINE,
+            ServiceConstants.PROPERTY_SETTINGS_FILE,
+            ServiceConstants.PROPERTY_SETTINGS_SECURITY_FILE,
+            ServiceConstants.PROPERTY_GLOBAL_UPDATE_POLICY,
+            ServiceConstants.PROPERTY_GLOBAL_CHECKSUM_POLICY,
+            ServiceConstants.PROPERTY_UPDATE_RELEASES,
+            ServiceConstants.PROPERTY_LOCAL_REPOSITORY,
+            ServiceConstants.PROPERTY_LOCAL_REPOSITORY_URL,
+            ServiceConstants.PROPERTY_LOCAL_REPOSITORY_SPLIT,
+            ServiceConstants.PROPERTY_LOCAL_REPOSITORY_SPLIT_LOCAL_PREFIX,
+            ServiceConstants.PROPERTY_LOCAL_REPOSITORY_SPLIT_REMOTE_PREFIX,
+            ServiceConstants.PROPERTY_LOCAL_REPOSITORY_SPLIT_LOCAL,
+            ServiceConstants.PROPERTY_LOCAL_REPOSITORY_SPLIT_REMOTE,
+            ServiceConstants.PROPERTY_LOCAL_REPOSITORY_SPLIT_LOCAL_RELEASES,
+            ServiceConstants.PROPERTY_LOCAL_REPOSITORY_SPLIT_LOCAL_SNAPSHOTS,
+            ServiceConstants.PROPERTY_LOCAL_REPOSITORY_SPLIT_REMOTE_REPOSITORY,
+            ServiceConstants.PROPERTY_LOCAL_REPOSITORY_SPLIT_REMOTE_REPOSITORY_LAST,
+            ServiceConstants.PROPERTY_DEFAULT_REPOSITORIES,
+            ServiceConstants.PROPERTY_TIMEOUT,
+            ServiceConstants.PROPERTY_SOCKET_CONNECTION_TIMEOUT,
+            ServiceConstants.PROPERTY_SOCKET_SO_TIMEOUT,
+            ServiceConstants.PROPERTY_CONNECTION_RETRY_COUNT,
+            ServiceConstants.PROPERTY_CERTIFICATE_CHECK,
+            ServiceConstants.PROPERTY_USE_SYSTEM_PROPERTIES,
+            ServiceConstants.PROPERTY_SESSION_POOL_MIN,
+            ServiceConstants.PROPERTY_SESSION_POOL_MAX,
+            ServiceConstants.PROPERTY_SESSION_POOL_MAX_WAIT,
+            ServiceConstants.PROPERTY_SESSION_POOL_IDLE_TIMEOUT
+    );
 
     // configuration changes with every PID update, but then it's effectively immutable
     final private MavenConfiguration m_config;
@@ -150,11 +206,66 @@ public class AetherBasedResolver implements MavenResolver {
     final private ProxySelector m_proxySelector;
     final private AuthenticationSelector m_authenticationSelector;
 
-    // cache of sessions per local repository
-    private final ConcurrentMap<LocalRepository, Deque<RepositorySystemSession>> sessions = new ConcurrentHashMap<>();
+    // pool of sessions per local repository
+    private final SessionPool m_sessionPool;
 
     private final AtomicBoolean m_shutdown = new AtomicBoolean(false);
 
+    // executor for resolveAsync() methods - created on first use
+    private ExecutorService m_asyncExecutor;
+    // asynchronous resolutions in progress by normalized coordinates, so concurrent requests share one future
+    private final SingleFlight<File> m_asyncResolutions = new SingleFlight<>();
+    // resolutions in progress by normalized coordinates and repositories, so concurrent callers
+    // wait for single resolution instead of borrowing own sessions and accessing the same repositories
+    private final SingleFlight<File> m_resolutions = new SingleFlight<>();
+    // recently resolved release artifacts
+    private final ResolutionCache m_resolutionCache;
+    // parsed versions and version directories of default repositories
+    private final LocalVersionIndex m_versionIndex;
+    // timings and counters - kept for the lifetime of the bundle, so shared with next resolver
+    private final ResolverMetrics m_metrics;
+    // hit rates and latencies of remote repositories - kept for the lifetime of the bundle, so shared with next resolver
+    private final RepositoryOrdering m_repositoryOrdering;
+    // listener for all sessions - pooled sessions may be shared with next resolver, so it never changes
+    private final TransferListener m_transferListener;
+    // whether remote repositories are tried in adaptive order and ids of repositories that keep their priority
+    private final boolean m_adaptiveRepositoryOrder;
+    private final Set<String> m_pinnedRepositories;
+    private final ArtifactMaterializer m_materializer;
+    // recently merged metadata
+    private final MetadataCache m_metadataCache;
+    // artifacts known to be missing from default repositories
+    private final MissingArtifactsCache m_missingArtifacts;
+    // directory for indexes of default repositories - null if indexing is disabled
+    private final File m_defaultRepositoryIndexDirectory;
+    private final ConcurrentMap<File, DefaultRepositoryIndex> m_defaultRepositoryIndexes;
+    // private directory for merged metadata files (named after their content) - shared with the metadata cache
+    private final MergedMetadataFiles m_metadataFiles;
+    // whether default repositories are checked at the same time
+    private final boolean m_parallelDefaultRepositories;
+    // whether metadata is resolved from all remote repositories at the same time and how long to wait for each
+    private final boolean m_parallelMetadata;
+    private final long m_parallelMetadataTimeout;
+    // whether artifacts already available locally are returned without full Maven Resolver resolution
+    private final boolean m_localFastPath;
+
+    // repositories built from configuration, rebuilt only when @multi directories change
+    private volatile RepositoryTopology m_topology;
+    // may be null - @multi directories are then checked during resolution
+    private final MultiDirectoryWatcher m_multiDirectoryWatcher;
+    // executor for parallel operations within single resolution - created on first use
+    private ExecutorService m_parallelExecutor;
+    // executor for metadata resolutions bounded by parallelMetadataTimeout - created on first use
+    private ExecutorService m_metadataExecutor;
+
+    // digest of configuration that affects sessions (and resolved files) - resolvers with the same fingerprint
+    // may share sessions and caches
+    private final String m_sessionFingerprint;
+    // set when the state is taken over by next resolver, so it's not cleared/shut down by close()
+    private volatile boolean m_repoSystemHandedOver;
+    private volatile boolean m_sessionsHandedOver;
+    private volatile boolean m_metadataFilesHandedOver;
+
     /**
      * Create a AetherBasedResolver
      *
@@ -171,6 +282,22 @@ public class AetherBasedResolver implements MavenResolver {
      * @param mirror
      */
     public AetherBasedResolver(final MavenConfiguration configuration, final MirrorInfo mirror) {
+        this(configuration, mirror, null);
+    }
+
+    /**
+     * <p>Create a AetherBasedResolver that replaces {@code previous} resolver after configuration change.</p>
+     *
+     * <p>{@link RepositorySystem} doesn't depend on configuration and is always taken over from previous resolver.
+     * When the configuration that affects sessions (local repository, settings, policies, timeouts, ...) didn't
+     * change, the pool of sessions and the caches are taken over as well. Previous resolver should be
+     * {@link #close() closed} after this constructor returns.</p>
+     *
+     * @param configuration (must be not null)
+     * @param mirror
+     * @param previous resolver to take the state from (may be {@code null})
+     */
+    public AetherBasedResolver(final MavenConfiguration configuration, final MirrorInfo mirror, final AetherBasedResolver previous) {
         NullArgumentException.validateNotNull(configuration, "Maven configuration");
 
         m_config = configuration;
@@ -184,10 +311,86 @@ public class AetherBasedResolver implements MavenResolver {
             m_localRepository = null;
         }
 
+        m_sessionFingerprint = sessionFingerprint(mirror);
+        boolean reuseSessions = previous != null && !previous.m_shutdown.get()
+                && m_sessionFingerprint.equals(previous.m_sessionFingerprint);
+
         m_useSystemProperties = m_config.getProperty(ServiceConstants.PROPERTY_USE_SYSTEM_PROPERTIES, false, Boolean.TYPE);
+        m_parallelDefaultRepositories = m_config.getProperty(ServiceConstants.PROPERTY_PARALLEL_DEFAULT_REPOSITORIES, false, Boolean.class);
+        m_parallelMetadata = m_config.getProperty(ServiceConstants.PROPERTY_PARALLEL_METADATA, false, Boolean.class);
+        m_parallelMetadataTimeout = m_config.getProperty(ServiceConstants.PROPERTY_PARALLEL_METADATA_TIMEOUT, 30000L, Long.class);
+        m_localFastPath = m_config.isOffline()
+                || m_config.getProperty(ServiceConstants.PROPERTY_LOCAL_FAST_PATH, false, Boolean.class);
+        m_materializer = new ArtifactMaterializer(m_config.getProperty(ServiceConstants.PROPERTY_MATERIALIZE_REFLINK, false, Boolean.class));
+        if (m_config.getProperty(ServiceConstants.PROPERTY_WATCH_MULTI_DIRECTORIES, false, Boolean.class)) {
+            m_multiDirectoryWatcher = new MultiDirectoryWatcher(this::refreshTopology);
+        } else {
+            m_multiDirectoryWatcher = null;
+        }
+        int resolutionCacheSize = m_config.getProperty(ServiceConstants.PROPERTY_RESOLUTION_CACHE_SIZE, 1000, Integer.class);
+        if (reuseSessions && previous.m_resolutionCache.getMaxSize() == resolutionCacheSize) {
+            m_resolutionCache = previous.m_resolutionCache;
+        } else {
+            m_resolutionCache = new ResolutionCache(resolutionCacheSize);
+        }
+        // depends only on content of default repositories
+        m_versionIndex = previous != null ? previous.m_versionIndex : new LocalVersionIndex();
+        m_metrics = previous != null ? previous.m_metrics : new ResolverMetrics();
+        m_repositoryOrdering = previous != null ? previous.m_repositoryOrdering : new RepositoryOrdering();
+        m_transferListener = previous != null ? previous.m_transferListener
+                : ChainedTransferListener.newInstance(m_metrics.getTransferListener(), m_repositoryOrdering);
+        m_adaptiveRepositoryOrder = m_config.getProperty(ServiceConstants.PROPERTY_ADAPTIVE_REPOSITORY_ORDER, false, Boolean.class);
+        m_pinnedRepositories = new HashSet<>();
+        String pinned = m_config.getProperty(ServiceConstants.PROPERTY_ADAPTIVE_REPOSITORY_ORDER_PINNED, null, String.class);
+        if (pinned != null) {
+            for (String id : pinned.split(",")) {
+                if (!id.trim().isEmpty()) {
+                    m_pinnedRepositories.add(id.trim());
+                }
+            }
+        }
+        int metadataCacheSize = m_config.getProperty(ServiceConstants.PROPERTY_METADATA_CACHE_SIZE, 1000, Integer.class);
+        if (reuseSessions && previous.m_metadataCache.getMaxSize() == metadataCacheSize) {
+            m_metadataCache = previous.m_metadataCache;
+            m_metadataFiles = previous.m_metadataFiles;
+        } else {
+            m_metadataCache = new MetadataCache(metadataCacheSize);
+            // files returned to callers should not be deleted too soon
+            m_metadataFiles = new MergedMetadataFiles(Math.max(100, 2 * metadataCacheSize));
+        }
+        long missTtl = m_config.getProperty(ServiceConstants.PROPERTY_DEFAULT_REPOSITORY_MISS_TTL, 300000L, Long.class);
+        if (previous != null && previous.m_missingArtifacts.getTtl() == missTtl) {
+            // depends only on content of default repositories
+            m_missingArtifacts = previous.m_missingArtifacts;
+        } else {
+            m_missingArtifacts = new MissingArtifactsCache(missTtl);
+        }
+        if (m_config.getProperty(ServiceConstants.PROPERTY_DEFAULT_REPOSITORY_INDEX, false, Boolean.class)) {
+            String indexDirectory = m_config.getProperty(ServiceConstants.PROPERTY_DEFAULT_REPOSITORY_INDEX_DIRECTORY, null, String.class);
+            if (indexDirectory == null || indexDirectory.trim().isEmpty()) {
+                // private directory of current user - see DefaultRepositoryIndex.load()
+                m_defaultRepositoryIndexDirectory = new File(System.getProperty("java.io.tmpdir"),
+                        "pax-url-aether-index-" + System.getProperty("user.name"));
+            } else {
+                m_defaultRepositoryIndexDirectory = new File(indexDirectory.trim());
+            }
+        } else {
+            m_defaultRepositoryIndexDirectory = null;
+        }
+        if (previous != null && m_defaultRepositoryIndexDirectory != null
+                && m_defaultRepositoryIndexDirectory.equals(previous.m_defaultRepositoryIndexDirectory)) {
+            m_defaultRepositoryIndexes = previous.m_defaultRepositoryIndexes;
+        } else {
+            m_defaultRepositoryIndexes = new ConcurrentHashMap<>();
+        }
 
         // create global, thread-safe org.eclipse.aether.RepositorySystem used for all resolution operations
-        m_repoSystem = newRepositorySystem();
+        // it doesn't depend on configuration, so it's taken from previous resolver if possible
+        if (previous != null && !previous.m_shutdown.get()) {
+            m_repoSystem = previous.m_repoSystem;
+        } else {
+            m_repoSystem = newRepositorySystem();
+        }
 
         // proxy and mirror selectors are thread-safe objects configured once, but used for every created session
         // org.eclipse.aether.internal.impl.DefaultRepositorySystem.newResolutionRepositories() is actually
@@ -204,18 +407,144 @@ public class AetherBasedResolver implements MavenResolver {
         // create singleton session used only for org.eclipse.aether.RepositorySystem.newResolutionRepositories()
         // call when session is null
         m_defaultSession = newDefaultRepositorySystemSession();
+
+        if (reuseSessions) {
+            LOG.debug("Reusing sessions of previous Maven resolver");
+            m_sessionPool = previous.m_sessionPool;
+            // new sessions should be created by this resolver
+            m_sessionPool.setFactory(this::newRepositorySystemSession);
+        } else {
+            m_sessionPool = new SessionPool(
+                    m_config.getProperty(ServiceConstants.PROPERTY_SESSION_POOL_MIN, 1, Integer.class),
+                    m_config.getProperty(ServiceConstants.PROPERTY_SESSION_POOL_MAX, 32, Integer.class),
+                    m_config.getProperty(ServiceConstants.PROPERTY_SESSION_POOL_MAX_WAIT, 1000L, Long.class),
+                    m_config.getProperty(ServiceConstants.PROPERTY_SESSION_POOL_IDLE_TIMEOUT, 300000L, Long.class),
+                    this::newRepositorySystemSession);
+        }
+        m_metrics.gauge("sessionPool.created", m_sessionPool::getCreated);
+        m_metrics.gauge("sessionPool.borrowed", m_sessionPool::getBorrowed);
+        m_metrics.gauge("sessionPool.waited", m_sessionPool::getWaited);
+        m_metrics.gauge("sessionPool.evicted", m_sessionPool::getEvicted);
+        m_metrics.gauge("sessionPool.idle", m_sessionPool::getIdle);
+        warmUpSessions();
+
+        // previous resolver stops owning shared state only when nothing can fail anymore - otherwise
+        // it's still shut down by previous resolver
+        if (previous != null && previous.m_repoSystem == m_repoSystem) {
+            previous.m_repoSystemHandedOver = true;
+        }
+        if (previous != null && previous.m_sessionPool == m_sessionPool) {
+            previous.m_sessionsHandedOver = true;
+        }
+        if (previous != null && previous.m_metadataFiles == m_metadataFiles) {
+            previous.m_metadataFilesHandedOver = true;
+        }
     }
 
     @Override
     public void close() throws IOException {
-        // https://github.com/ops4j/org.ops4j.pax.url/issues/417#issuecomment-1812559451
-        m_repoSystem.shutdown();
         m_shutdown.set(true);
-        sessions.clear();
+        // stop refreshing the topology before shutting down the repository system
+        if (m_multiDirectoryWatcher != null) {
+            m_multiDirectoryWatcher.close();
+        }
+        // https://github.com/ops4j/org.ops4j.pax.url/issues/417#issuecomment-1812559451
+        if (!m_repoSystemHandedOver) {
+            m_repoSystem.shutdown();
+        }
+        if (!m_sessionsHandedOver) {
+            // caches that may be shared are simply left for garbage collection
+            m_sessionPool.clear();
+        }
+        if (!m_metadataFilesHandedOver) {
+            m_metadataFiles.close();
+        }
+
+        ExecutorService executor;
+        ExecutorService parallelExecutor;
+        ExecutorService metadataExecutor;
+        synchronized (this) {
+            executor = m_asyncExecutor;
+            m_asyncExecutor = null;
+            parallelExecutor = m_parallelExecutor;
+            m_parallelExecutor = null;
+            metadataExecutor = m_metadataExecutor;
+            m_metadataExecutor = null;
+        }
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+        if (parallelExecutor != null) {
+            parallelExecutor.shutdown();
+        }
+        if (metadataExecutor != null) {
+            // resolutions that timed out may still be running
+            metadataExecutor.shutdownNow();
+        }
+        // resolutions that were queued, but never started
+        m_asyncResolutions.failAll(new IOException("Maven resolver is closed"));
     }
 
     // ---- configuration methods invoked from constructor
 
+    /**
+     * Calculates a digest of all the configuration properties that may affect sessions and resolved files
+     * (see {@link #SESSION_PROPERTIES}).
+     *
+     * @param mirror
+     * @return
+     */
+    private String sessionFingerprint(MirrorInfo mirror) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            PropertyResolver resolver = m_config.getPropertyResolver();
+            for (String name : SESSION_PROPERTIES) {
+                String value = resolver == null ? null : resolver.get(m_config.getPid() + name);
+                digest.update((name + "=" + value + "\n").getBytes(StandardCharsets.UTF_8));
+            }
+            // servers, proxies, mirrors and profiles from (decrypted) settings.xml - serialized only if
+            // the configuration can't tell which settings.xml they were built from
+            String settingsFingerprint = m_config.getSettingsFingerprint();
+            if (settingsFingerprint != null) {
+                digest.update(("settings=" + settingsFingerprint + "\n").getBytes(StandardCharsets.UTF_8));
+            } else {
+                StringWriter settings = new StringWriter();
+                new SettingsXpp3Writer().write(settings, m_settings);
+                digest.update(settings.toString().getBytes(StandardCharsets.UTF_8));
+            }
+            if (mirror != null) {
+                digest.update((mirror.getId() + "|" + mirror.getUrl() + "|" + mirror.getMirrorOf())
+                        .getBytes(StandardCharsets.UTF_8));
+            }
+            StringBuilder sb = new StringBuilder();
+            for (byte b : digest.digest()) {
+                sb.append(String.format("%02x", b));
+            }
+            return sb.toString();
+        } catch (NoSuchAlgorithmException | IOException e) {
+            // unique fingerprint - nothing will be shared
+            LOG.debug("Can't calculate configuration fingerprint: {}", e.getMessage());
+            return UUID.randomUUID().toString();
+        }
+    }
+
+    /**
+     * Creates initial sessions for default repositories and local repository.
+     */
+    private void warmUpSessions() {
+        try {
+            for (LocalRepositoryWithConfig repo : selectDefaultRepositories()) {
+                m_sessionPool.warmUp(repo);
+            }
+            if (m_localRepository != null) {
+                m_sessionPool.warmUp(new LocalRepositoryWithConfig(m_localRepository, m_config.getLocalMavenRepositoryURL()));
+            }
+        } catch (RuntimeException e) {
+            // sessions will be created when needed
+            LOG.debug("Can't create initial sessions: {}", e.getMessage(), e);
+        }
+    }
+
     /**
      * Configures Maven Resolver's {@link ProxySelector} with proxies from settings.xml.
      *
@@ -316,9 +645,19 @@ public class AetherBasedResolver implements MavenResolver {
         if (!url.startsWith(ServiceConstants.PROTOCOL + ":")) {
             throw new IllegalArgumentException("url should be a mvn based url");
         }
-        url = url.substring(4);
-        Parser parser = new Parser(url);
-        return resolve(parser.getGroup(), parser.getArtifact(), parser.getClassifier(), parser.getType(), parser.getVersion(), parser.getRepositoryURL(), previousException);
+        return resolve(MavenCoordinates.parse(url.substring(4)), previousException);
+    }
+
+    /**
+     * Resolve artifact using already parsed {@code mvn:} URI (e.g., by {@link Connection}).
+     *
+     * @param coordinates
+     * @param previousException
+     * @return
+     * @throws IOException
+     */
+    public File resolve(MavenCoordinates coordinates, Exception previousException) throws IOException {
+        return resolve(coordinates.getArtifact(), coordinates.getRepositoryURL(), previousException);
     }
 
     @Override
@@ -363,7 +702,9 @@ public class AetherBasedResolver implements MavenResolver {
      */
     public File resolve(Artifact artifact, MavenRepositoryURL url, Exception previousException) throws IOException {
 
+        long start = m_metrics.start();
         List<LocalRepositoryWithConfig> defaultRepositories = selectDefaultRepositories();
+        m_metrics.record("selectDefaultRepositories", start, true);
         List<RemoteRepository> remoteRepositories = selectRemoteRepositories(url);
 
         // PAXURL-337: use previousException as hint to alter remote repositories to query
@@ -429,31 +770,376 @@ public class AetherBasedResolver implements MavenResolver {
     public File resolve(List<LocalRepositoryWithConfig> defaultRepositories, List<RemoteRepository> remoteRepositories,
             Artifact artifact) throws IOException {
 
-        if (artifact.getExtension().isEmpty()) {
-            artifact = new DefaultArtifact(artifact.getGroupId(), artifact.getArtifactId(), artifact.getClassifier(),
-                    "jar", artifact.getVersion()
-            );
+        Artifact normalized = normalizeArtifact(artifact);
+
+        String key = resolutionKey(defaultRepositories, remoteRepositories, normalized);
+        boolean cacheable = !normalized.isSnapshot() && isFixedVersion(normalized);
+        if (cacheable) {
+            File file = m_resolutionCache.get(key);
+            if (file != null) {
+                LOG.debug("Resolved {} from cache", normalized);
+                m_metrics.increment("resolutionCache.hits");
+                return file;
+            }
+            if (m_localFastPath) {
+                file = findLocally(defaultRepositories, remoteRepositories, normalized);
+                if (file != null) {
+                    LOG.debug("Resolved {} without Maven Resolver", normalized);
+                    m_metrics.increment("localFastPath.hits");
+                    m_resolutionCache.put(key, file, cacheExpiration(defaultRepositories, remoteRepositories, file));
+                    return file;
+                }
+            }
         }
 
-        if (artifact.getVersion().equals(VERSION_LATEST)) {
-            artifact = artifact.setVersion(LATEST_VERSION_RANGE);
+        // concurrent callers asking for the same artifact from the same repositories share single resolution
+        // (and its result or exception)
+        return m_resolutions.execute(key, () -> {
+            File file = doResolve(defaultRepositories, remoteRepositories, normalized);
+            if (cacheable && file != null) {
+                m_resolutionCache.put(key, file, cacheExpiration(defaultRepositories, remoteRepositories, file));
+            }
+            return file;
+        });
+    }
+
+    /**
+     * <p>Fast path for artifacts with fixed release version, that checks only what Maven Resolver checks first
+     * anyway - the {@link LocalRepositoryManager} of each <em>default</em> repository and of local repository.
+     * Paths are determined by the managers, so split repositories and tracking files are taken into account,
+     * but there are no update checks, sync contexts or repository events.</p>
+     *
+     * <p>Just as in {@code DefaultArtifactResolver}, any existing file is accepted when there are no
+     * remote repositories. Otherwise the file has to be installed locally or downloaded from one of
+     * the remote repositories.</p>
+     *
+     * @param defaultRepositories
+     * @param remoteRepositories
+     * @param artifact normalized artifact with fixed release version
+     * @return locally available file or {@code null} if full resolution is needed
+     */
+    private File findLocally(List<LocalRepositoryWithConfig> defaultRepositories,
+            List<RemoteRepository> remoteRepositories, Artifact artifact) {
+        for (LocalRepositoryWithConfig repo : defaultRepositories) {
+            File basedir = repo.repository.getBasedir();
+            if (m_missingArtifacts.isMissing(basedir, artifact.toString())) {
+                continue;
+            }
+            RepositorySystemSession session = findOrCreateSession(repo);
+            if (session == null) {
+                throw new IllegalStateException("No session configured for default repository " + repo);
+            }
+            try {
+                LocalRepositoryManager lrm = session.getLocalRepositoryManager();
+                DefaultRepositoryIndex index = defaultRepositoryIndex(repo);
+                if (index != null && !index.exists(lrm.getPathForLocalArtifact(artifact))) {
+                    continue;
+                }
+                LocalArtifactResult result = lrm.find(session, new LocalArtifactRequest(artifact, null, null));
+                if (result.getFile() != null) {
+                    return result.getFile();
+                }
+                recordMissing(session, basedir, artifact);
+            } finally {
+                releaseSession(session);
+            }
+        }
+
+        RepositorySystemSession session = findOrCreateSession(null);
+        if (session == null) {
+            return null;
+        }
+        try {
+            List<RemoteRepository> repositories = configureRepositories(session, remoteRepositories);
+            LocalArtifactResult result = session.getLocalRepositoryManager()
+                    .find(session, new LocalArtifactRequest(artifact, repositories, null));
+            if (result.getFile() != null && (result.isAvailable() || repositories.isEmpty())) {
+                return result.getFile();
+            }
+            return null;
+        } finally {
+            releaseSession(session);
+        }
+    }
+
+    /**
+     * Resolves an artifact with fixed version in single <em>default</em> repository using a session
+     * already obtained for this repository.
+     *
+     * @param session
+     * @param repo
+     * @param index index of the repository, may be {@code null}
+     * @param artifact
+     * @return resolved file or {@code null} if the artifact is not available in this repository
+     */
+    private File resolveInDefaultRepository(RepositorySystemSession session, LocalRepositoryWithConfig repo,
+            DefaultRepositoryIndex index, Artifact artifact) {
+        if (index != null && !index.exists(session.getLocalRepositoryManager().getPathForLocalArtifact(artifact))) {
+            LOG.trace("{} not found in index of {}", artifact, repo.repository.getBasedir());
+            return null;
+        }
+        try {
+            return m_repoSystem
+                    .resolveArtifact(session, new ArtifactRequest(artifact, null, null))
+                    .getArtifact().getFile();
+        } catch (ArtifactResolutionException e) {
+            recordMissing(session, repo.repository.getBasedir(), artifact);
+            return null;
+        }
+    }
+
+    /**
+     * Resolves an artifact with fixed version in single <em>default</em> repository, borrowing a session
+     * for this repository.
+     *
+     * @param repo
+     * @param artifact
+     * @return resolved file or {@code null} if the artifact is not available in this repository
+     */
+    private File probeDefaultRepository(LocalRepositoryWithConfig repo, Artifact artifact) {
+        if (m_missingArtifacts.isMissing(repo.repository.getBasedir(), artifact.toString())) {
+            return null;
+        }
+        RepositorySystemSession session = findOrCreateSession(repo);
+        if (session == null) {
+            throw new IllegalStateException("No session configured for default repository " + repo);
+        }
+        long start = m_metrics.start();
+        try {
+            return resolveInDefaultRepository(session, repo, defaultRepositoryIndex(repo), artifact);
+        } finally {
+            releaseSession(session);
+            m_metrics.record(defaultRepositoryStage(repo), start, true);
+        }
+    }
+
+    /**
+     * <p>Checks all <em>default</em> repositories at the same time (first one in calling thread). The result is
+     * the same as with sequential check - the artifact from first repository (in configured order) that has it
+     * is returned.</p>
+     *
+     * @param defaultRepositories
+     * @param artifact artifact with fixed version
+     * @return resolved file or {@code null} if none of the repositories contains the artifact
+     * @throws IOException
+     */
+    private File probeDefaultRepositories(List<LocalRepositoryWithConfig> defaultRepositories, Artifact artifact)
+            throws IOException {
+        ExecutorService executor = parallelExecutor();
+        List<FutureTask<File>> probes = new ArrayList<>(defaultRepositories.size() - 1);
+        try {
+            for (LocalRepositoryWithConfig repo : defaultRepositories.subList(1, defaultRepositories.size())) {
+                FutureTask<File> probe = new FutureTask<>(() -> probeDefaultRepository(repo, artifact));
+                probes.add(probe);
+                try {
+                    if (executor == null) {
+                        probe.run();
+                    } else {
+                        executor.execute(probe);
+                    }
+                } catch (RejectedExecutionException e) {
+                    probe.run();
+                }
+            }
+
+            File file = probeDefaultRepository(defaultRepositories.get(0), artifact);
+            if (file != null) {
+                return file;
+            }
+            // in priority order
+            for (FutureTask<File> probe : probes) {
+                file = probe.get();
+                if (file != null) {
+                    return file;
+                }
+            }
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while checking default repositories for " + artifact);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IOException(e.getCause().getMessage(), e.getCause());
+        } finally {
+            // probes already running will simply finish
+            for (FutureTask<File> probe : probes) {
+                probe.cancel(false);
+            }
+        }
+    }
+
+    /**
+     * Returns (creating if needed) an executor used for parallel operations within single resolution.
+     *
+     * @return {@code null} if the resolver is closed
+     */
+    private synchronized ExecutorService parallelExecutor() {
+        if (m_shutdown.get()) {
+            return null;
+        }
+        if (m_parallelExecutor == null) {
+            int threads = Math.max(1, m_config.getProperty(ServiceConstants.PROPERTY_PARALLEL_THREADS, 8, Integer.class));
+            AtomicInteger counter = new AtomicInteger();
+            ThreadFactory threadFactory = r -> {
+                Thread t = new Thread(r, "pax-url-aether-parallel-" + counter.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            };
+            ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60L, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<>(), threadFactory);
+            executor.allowCoreThreadTimeOut(true);
+            m_parallelExecutor = executor;
+        }
+        return m_parallelExecutor;
+    }
+
+    /**
+     * Returns executor for metadata resolutions of {@link #resolveMetadataInParallel}. It's not the
+     * {@link #parallelExecutor()}, because the resolution shouldn't wait for other parallel tasks.
+     *
+     * @return {@code null} if the resolver is closed
+     */
+    private synchronized ExecutorService metadataExecutor() {
+        if (m_shutdown.get()) {
+            return null;
+        }
+        if (m_metadataExecutor == null) {
+            AtomicInteger counter = new AtomicInteger();
+            m_metadataExecutor = Executors.newCachedThreadPool(r -> {
+                Thread t = new Thread(r, "pax-url-aether-metadata-" + counter.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+        }
+        return m_metadataExecutor;
+    }
+
+    /**
+     * Returns current index of <em>default</em> repository if indexing is enabled
+     * with {@link ServiceConstants#PROPERTY_DEFAULT_REPOSITORY_INDEX}.
+     *
+     * @param repo
+     * @return {@code null} if indexing is disabled or index is not available
+     */
+    private DefaultRepositoryIndex defaultRepositoryIndex(LocalRepositoryWithConfig repo) {
+        if (m_defaultRepositoryIndexDirectory == null) {
+            return null;
+        }
+        File basedir = repo.repository.getBasedir();
+        DefaultRepositoryIndex index = m_defaultRepositoryIndexes.get(basedir);
+        if (index == null || !index.isCurrent()) {
+            if (!basedir.isDirectory()) {
+                return null;
+            }
+            try {
+                index = DefaultRepositoryIndex.load(basedir, m_defaultRepositoryIndexDirectory);
+                m_defaultRepositoryIndexes.put(basedir, index);
+            } catch (IOException e) {
+                LOG.warn("Can't index default repository {}: {}", basedir, e.getMessage());
+                return null;
+            }
         }
+        return index;
+    }
+
+    /**
+     * Remembers that the artifact is not available in <em>default</em> repository.
+     *
+     * @param session session for default repository
+     * @param basedir base directory of default repository
+     * @param artifact
+     */
+    private void recordMissing(RepositorySystemSession session, File basedir, Artifact artifact) {
+        LocalRepositoryManager lrm = session.getLocalRepositoryManager();
+        File expected = new File(lrm.getRepository().getBasedir(), lrm.getPathForLocalArtifact(artifact));
+        m_missingArtifacts.missing(basedir, artifact.toString(), expected);
+    }
+
+    /**
+     * Determines until when resolved file may be taken from {@link ResolutionCache}. Files found in
+     * <em>default</em> repositories never expire, for other files, the most restrictive update policy
+     * of remote repositories is used.
+     *
+     * @param defaultRepositories
+     * @param remoteRepositories
+     * @param file
+     * @return
+     */
+    private long cacheExpiration(List<LocalRepositoryWithConfig> defaultRepositories,
+            List<RemoteRepository> remoteRepositories, File file) {
+        for (LocalRepositoryWithConfig repo : defaultRepositories) {
+            if (file.toPath().startsWith(repo.repository.getBasedir().toPath())) {
+                return ResolutionCache.NEVER;
+            }
+        }
+        long now = System.currentTimeMillis();
+        long expiration = ResolutionCache.NEVER;
+        for (RemoteRepository repo : remoteRepositories) {
+            RepositoryPolicy policy = repo.getPolicy(false);
+            if (policy.isEnabled()) {
+                expiration = Math.min(expiration, ResolutionCache.expiration(policy.getUpdatePolicy(), now));
+            }
+        }
+        return expiration;
+    }
+
+    /**
+     * Key identifying single resolution of (already normalized) artifact using given repositories.
+     *
+     * @param defaultRepositories
+     * @param remoteRepositories
+     * @param artifact
+     * @return
+     */
+    private String resolutionKey(List<LocalRepositoryWithConfig> defaultRepositories,
+            List<RemoteRepository> remoteRepositories, Artifact artifact) {
+        StringBuilder sb = new StringBuilder(artifact.toString());
+        for (LocalRepositoryWithConfig repo : defaultRepositories) {
+            sb.append('|').append(repo.repository.getBasedir());
+        }
+        sb.append('|');
+        for (RemoteRepository repo : remoteRepositories) {
+            sb.append('|').append(repo.getId()).append('=').append(repo.getUrl());
+        }
+        return sb.toString();
+    }
+
+    private File doResolve(List<LocalRepositoryWithConfig> defaultRepositories, List<RemoteRepository> remoteRepositories,
+            Artifact artifact) throws IOException {
 
         // This is where Pax URL Aether does its 2-stage default+remote repositories resolution
 
         // 1). Try with default repositories first. These are normal Maven local repositories and resolution
         // is performed for each of them, passing empty list of remote repositories
+        long defaultStart = m_metrics.start();
         try {
-            GenericVersionScheme genericVersionScheme = new GenericVersionScheme();
-            VersionConstraint vc = genericVersionScheme.parseVersionConstraint(artifact.getVersion());
+            VersionConstraint vc = m_versionIndex.constraint(artifact.getVersion());
+
+            List<LocalRepositoryWithConfig> sequentialRepositories = defaultRepositories;
+            if (vc.getVersion() != null && defaultRepositories.size() > 1 && m_parallelDefaultRepositories) {
+                // without version ranges, default repositories may be checked at the same time
+                File file = probeDefaultRepositories(defaultRepositories, artifact);
+                if (file != null) {
+                    return file;
+                }
+                sequentialRepositories = Collections.emptyList();
+            }
 
             // first, each "default repo" will be treated as local repo and resolution will be performed
             // without remote repositories
-            for (LocalRepositoryWithConfig repo : defaultRepositories) {
+            for (LocalRepositoryWithConfig repo : sequentialRepositories) {
+                if (vc.getVersion() != null && m_missingArtifacts.isMissing(repo.repository.getBasedir(), artifact.toString())) {
+                    // known to be missing, no need to borrow a session and let Maven Resolver check it again
+                    continue;
+                }
                 RepositorySystemSession session = findOrCreateSession(repo);
                 if (session == null) {
                     throw new IllegalStateException("No session configured for default repository " + repo);
                 }
+                DefaultRepositoryIndex index = defaultRepositoryIndex(repo);
+                long repoStart = m_metrics.start();
                 try {
                     if (vc.getVersion() == null && vc.getRange() != null) {
                         // KARAF-6005: try to resolve version range against local repository (default repository)
@@ -465,28 +1151,27 @@ public class AetherBasedResolver implements MavenResolver {
                         // this already takes "split" configuration into account
                         String path = lrm.getPathForLocalMetadata(metadata);
                         File metadataLocation = new File(lrm.getRepository().getBasedir(), path).getParentFile();
-
-                        Set<Version> versions = new TreeSet<>();
-                        if (metadataLocation.isDirectory()) {
-                            if (!new File(metadataLocation, "maven-metadata.xml").isFile()) {
-                                // we will generate (kind of) maven-metadata.xml manually
-                                String[] versionDirs = metadataLocation.list();
-                                if (versionDirs != null) {
-                                    for (String vd : versionDirs) {
-                                        Version ver = genericVersionScheme.parseVersion(vd);
-                                        if (vc.containsVersion(ver)) {
-                                            versions.add(ver);
-                                        }
-                                    }
-                                }
-                                VersionRangeResult vrr = new VersionRangeResult(new VersionRangeRequest());
-                                vrr.setVersions(new LinkedList<>(versions));
-
-                                if (vrr.getHighestVersion() != null) {
+                        String metadataDir = path.lastIndexOf('/') == -1 ? "" : path.substring(0, path.lastIndexOf('/'));
+
+                        // the index can be used only if the directory didn't change since indexing, but it may
+                        // still tell that the directory doesn't exist
+                        boolean indexed = index != null && index.isIndexed(metadataDir);
+                        if (indexed || (index == null || index.exists(metadataDir)) && metadataLocation.isDirectory()) {
+                            if (!(indexed ? index.exists(metadataDir + "/maven-metadata.xml")
+                                    : new File(metadataLocation, "maven-metadata.xml").isFile())) {
+                                // we will generate (kind of) maven-metadata.xml manually - using sorted versions
+                                // of the directory, updated only when the directory changes
+                                Version highest = indexed
+                                        ? m_versionIndex.highest(metadataLocation.getPath(), index.lastModified(metadataDir),
+                                                () -> index.list(metadataDir), vc)
+                                        : m_versionIndex.highest(metadataLocation.getPath(), metadataLocation.lastModified(),
+                                                metadataLocation::list, vc);
+
+                                if (highest != null) {
                                     if (LOG.isDebugEnabled()) {
-                                        LOG.debug("Resolved version range {} as {}", vc.getRange(), vrr.getHighestVersion().toString());
+                                        LOG.debug("Resolved version range {} as {}", vc.getRange(), highest);
                                     }
-                                    vc = new GenericVersionScheme().parseVersionConstraint(vrr.getHighestVersion().toString());
+                                    vc = m_versionIndex.constraint(highest.toString());
                                     artifact = artifact.setVersion(vc.getVersion().toString());
                                 }
                             } else {
@@ -500,7 +1185,7 @@ public class AetherBasedResolver implements MavenResolver {
                                             if (LOG.isDebugEnabled()) {
                                                 LOG.debug("Resolved version range {} as {}", vc.getRange(), v.toString());
                                             }
-                                            vc = new GenericVersionScheme().parseVersionConstraint(v.toString());
+                                            vc = m_versionIndex.constraint(v.toString());
                                             artifact = artifact.setVersion(vc.getVersion().toString());
                                         }
                                     }
@@ -512,59 +1197,380 @@ public class AetherBasedResolver implements MavenResolver {
                     }
                     if (vc.getVersion() != null) {
                         // normal resolution without ranges
-                        try {
-                            return m_repoSystem
-                                    .resolveArtifact(session, new ArtifactRequest(artifact, null, null))
-                                    .getArtifact().getFile();
-                        } catch (ArtifactResolutionException e) {
-                            // Ignore
+                        File file = resolveInDefaultRepository(session, repo, index, artifact);
+                        if (file != null) {
+                            return file;
                         }
                     }
-                } finally {
-                    releaseSession(session);
+                } finally {
+                    releaseSession(session);
+                    m_metrics.record(defaultRepositoryStage(repo), repoStart, true);
+                }
+            }
+        } catch (InvalidVersionSpecificationException e) {
+            // Should not happen
+        } finally {
+            m_metrics.record("defaultRepositories", defaultStart, true);
+        }
+
+        // 2). Resolve using collection of remote repositories with single local repository as cache
+        RepositorySystemSession session = findOrCreateSession(null);
+
+        if (session == null) {
+            LOG.debug("Skipping remote repository resolution - no local repository configured");
+            return null;
+        }
+
+        try {
+            // only now, knowing the session (tied to particular local repository) we can
+            // preprocess list of remote repositories, applying mirror, proxy and auth configuration
+            // this was done manually in Pax URL Aether 2.6.x, where assignProxyAndMirrors() was doing
+            // complex mirror/proxy/auth processing and also checking "effective" checsum/update policies
+            // inside a mirror when it was used to mirror more repositories.
+            // now everything is done with single call
+            List<RemoteRepository> configuredRepositories
+                    = configureRepositories(session, remoteRepositories);
+
+            artifact = resolveLatestVersionRange(session, configuredRepositories, artifact);
+            long remoteStart = m_metrics.start();
+            ArtifactResult result;
+            try {
+                result = m_repoSystem.resolveArtifact(session,
+                        new ArtifactRequest(artifact, orderRepositories(configuredRepositories, artifact), null));
+            } catch (ArtifactResolutionException e) {
+                m_metrics.record("remoteArtifact", remoteStart, false);
+                throw e;
+            }
+            m_metrics.record("remoteArtifact", remoteStart, true);
+            if (result.getRepository() != null) {
+                m_metrics.record("remoteArtifact." + result.getRepository().getId(), remoteStart, true);
+            }
+            return result.getArtifact().getFile();
+        } catch (ArtifactResolutionException e) {
+            // we know there's one ArtifactResult, because there was one ArtifactRequest
+            ArtifactResolutionException original = new ArtifactResolutionException(e.getResults(),
+                    "Error resolving artifact " + artifact.toString(), null);
+
+            throw configureIOException(original, e, e.getResult().getExceptions());
+        } catch (VersionRangeResolutionException e) {
+            // we know there's one ArtifactResult, because there was one ArtifactRequest
+            VersionRangeResolutionException original = new VersionRangeResolutionException(e.getResult(),
+                    "Error resolving artifact " + artifact.toString(), null);
+
+            throw configureIOException(original, e, e.getResult().getExceptions());
+        } finally {
+            releaseSession(session);
+        }
+    }
+
+    // ---- asynchronous resolution methods
+
+    @Override
+    public CompletableFuture<File> resolveAsync(String url) {
+        try {
+            if (!url.startsWith(ServiceConstants.PROTOCOL + ":")) {
+                throw new IllegalArgumentException("url should be a mvn based url");
+            }
+            MavenCoordinates coordinates = MavenCoordinates.parse(url.substring(4));
+            return resolveAsync(coordinates.getArtifact(), coordinates.getRepositoryURL());
+        } catch (MalformedURLException | IllegalArgumentException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    @Override
+    public CompletableFuture<File> resolveAsync(String groupId, String artifactId, String classifier, String extension, String version) {
+        try {
+            return resolveAsync(new DefaultArtifact(groupId, artifactId, classifier, extension, version), null);
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * Asynchronous version of {@link #resolve(Artifact, MavenRepositoryURL, Exception)}. The resolution is
+     * performed using resolver's own executor (configured with {@link ServiceConstants#PROPERTY_ASYNC_THREADS}
+     * and {@link ServiceConstants#PROPERTY_ASYNC_VIRTUAL_THREADS}). When there's already a resolution
+     * in progress for the same artifact and repository, no new resolution is started.
+     *
+     * @param artifact
+     * @param url extra URL for remote repository to check if the original {@code mvn:} URI included source repository
+     * @return a future, that may be cancelled without affecting other callers waiting for the same artifact
+     */
+    public CompletableFuture<File> resolveAsync(Artifact artifact, MavenRepositoryURL url) {
+        Artifact normalized = normalizeArtifact(artifact);
+        String key = url == null ? normalized.toString() : normalized + "@" + url;
+
+        ExecutorService executor;
+        try {
+            executor = asyncExecutor();
+        } catch (IllegalStateException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        return m_asyncResolutions.submit(key, () -> resolve(normalized, url, null), executor);
+    }
+
+    /**
+     * Returns (creating if needed) an executor used for asynchronous resolution.
+     *
+     * @return
+     */
+    private synchronized ExecutorService asyncExecutor() {
+        if (m_shutdown.get()) {
+            throw new IllegalStateException("Maven resolver is closed");
+        }
+        if (m_asyncExecutor == null) {
+            boolean virtual = m_config.getProperty(ServiceConstants.PROPERTY_ASYNC_VIRTUAL_THREADS, false, Boolean.class);
+            if (virtual) {
+                try {
+                    // JDK 21+ without compile-time dependency
+                    m_asyncExecutor = (ExecutorService) Executors.class
+                            .getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+                } catch (ReflectiveOperationException e) {
+                    LOG.warn("Virtual threads are not available in this JVM, using platform threads for asynchronous resolution");
+                }
+            }
+            if (m_asyncExecutor == null) {
+                int threads = m_config.getProperty(ServiceConstants.PROPERTY_ASYNC_THREADS, 8, Integer.class);
+                AtomicInteger counter = new AtomicInteger();
+                ThreadFactory threadFactory = r -> {
+                    Thread t = new Thread(r, "pax-url-aether-resolver-" + counter.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                };
+                m_asyncExecutor = Executors.newFixedThreadPool(Math.max(1, threads), threadFactory);
+            }
+        }
+        return m_asyncExecutor;
+    }
+
+    /**
+     * Ensures the artifact has an extension and replaces {@code LATEST} version with open version range.
+     *
+     * @param artifact
+     * @return
+     */
+    private Artifact normalizeArtifact(Artifact artifact) {
+        if (artifact.getExtension().isEmpty()) {
+            artifact = new DefaultArtifact(artifact.getGroupId(), artifact.getArtifactId(), artifact.getClassifier(),
+                    "jar", artifact.getVersion()
+            );
+        }
+
+        if (artifact.getVersion().equals(VERSION_LATEST)) {
+            artifact = artifact.setVersion(LATEST_VERSION_RANGE);
+        }
+
+        return artifact;
+    }
+
+    @Override
+    public Materialization materialize(String url, Path target) throws IOException {
+        return m_materializer.materialize(resolve(url).toPath(), target);
+    }
+
+    // ---- batch resolution methods
+
+    @Override
+    public List<File> resolveAll(Collection<String> urls) throws IOException {
+        List<Artifact> artifacts = new ArrayList<>(urls.size());
+        List<MavenRepositoryURL> repositoryURLs = new ArrayList<>(urls.size());
+        for (String url : urls) {
+            if (!url.startsWith(ServiceConstants.PROTOCOL + ":")) {
+                throw new IllegalArgumentException("url should be a mvn based url");
+            }
+            MavenCoordinates coordinates = MavenCoordinates.parse(url.substring(4));
+            artifacts.add(coordinates.getArtifact());
+            repositoryURLs.add(coordinates.getRepositoryURL());
+        }
+        return resolveAll(artifacts, repositoryURLs);
+    }
+
+    /**
+     * Resolves a list of {@link Artifact artifacts} using repositories prepared from global configuration.
+     *
+     * @param artifacts
+     * @return list of resolved files in the order of passed artifacts
+     * @throws IOException
+     */
+    public List<File> resolveAll(List<Artifact> artifacts) throws IOException {
+        return resolveAll(artifacts, Collections.nCopies(artifacts.size(), null));
+    }
+
+    /**
+     * <p>Batch version of {@link #resolve(List, List, Artifact)}. Instead of performing the 2-stage default+remote
+     * resolution for each artifact separately, single {@link RepositorySystem#resolveArtifacts} call is made
+     * for each default repository and then single call for all artifacts not found there. This way the
+     * basic connector can download the artifacts concurrently and single session is used for the whole set.</p>
+     *
+     * <p>Artifacts with version ranges are resolved one by one, because the range has to be resolved
+     * against each default repository first.</p>
+     *
+     * @param artifacts
+     * @param urls extra repository URLs (may be {@code null}) for each artifact
+     * @return
+     * @throws IOException
+     */
+    private List<File> resolveAll(List<Artifact> artifacts, List<MavenRepositoryURL> urls) throws IOException {
+        long start = m_metrics.start();
+        List<LocalRepositoryWithConfig> defaultRepositories = selectDefaultRepositories();
+        m_metrics.record("selectDefaultRepositories", start, true);
+
+        int count = artifacts.size();
+        Artifact[] normalized = new Artifact[count];
+        File[] resolved = new File[count];
+        List<Integer> pending = new LinkedList<>();
+        Map<MavenRepositoryURL, List<RemoteRepository>> remoteRepositories = new IdentityHashMap<>();
+
+        for (int i = 0; i < count; i++) {
+            normalized[i] = normalizeArtifact(artifacts.get(i));
+            if (isFixedVersion(normalized[i])) {
+                if (m_localFastPath && !normalized[i].isSnapshot()) {
+                    resolved[i] = findLocally(defaultRepositories,
+                            remoteRepositories.computeIfAbsent(urls.get(i), this::selectRemoteRepositories), normalized[i]);
+                }
+                if (resolved[i] == null) {
+                    pending.add(i);
+                }
+            } else {
+                resolved[i] = resolve(defaultRepositories, selectRemoteRepositories(urls.get(i)), normalized[i]);
+            }
+        }
+
+        // 1). default repositories - each is asked for all the artifacts not found so far
+        for (LocalRepositoryWithConfig repo : defaultRepositories) {
+            if (pending.isEmpty()) {
+                break;
+            }
+            File basedir = repo.repository.getBasedir();
+            List<Integer> candidates = new ArrayList<>(pending.size());
+            for (int i : pending) {
+                if (!m_missingArtifacts.isMissing(basedir, normalized[i].toString())) {
+                    candidates.add(i);
+                }
+            }
+            if (candidates.isEmpty()) {
+                continue;
+            }
+            RepositorySystemSession session = findOrCreateSession(repo);
+            if (session == null) {
+                throw new IllegalStateException("No session configured for default repository " + repo);
+            }
+            DefaultRepositoryIndex index = defaultRepositoryIndex(repo);
+            if (index != null) {
+                LocalRepositoryManager lrm = session.getLocalRepositoryManager();
+                candidates.removeIf(i -> !index.exists(lrm.getPathForLocalArtifact(normalized[i])));
+                if (candidates.isEmpty()) {
+                    releaseSession(session);
+                    continue;
+                }
+            }
+            long repoStart = m_metrics.start();
+            try {
+                List<ArtifactRequest> requests = new ArrayList<>(candidates.size());
+                for (int i : candidates) {
+                    requests.add(new ArtifactRequest(normalized[i], null, null));
+                }
+                List<ArtifactResult> results;
+                try {
+                    results = m_repoSystem.resolveArtifacts(session, requests);
+                } catch (ArtifactResolutionException e) {
+                    // some artifacts are not available in this default repository
+                    results = e.getResults();
+                }
+                // results are in the same order as requests
+                Iterator<Integer> it = candidates.iterator();
+                for (ArtifactResult result : results) {
+                    int i = it.next();
+                    if (result.isResolved()) {
+                        resolved[i] = result.getArtifact().getFile();
+                        pending.remove((Integer) i);
+                    } else {
+                        recordMissing(session, basedir, normalized[i]);
+                    }
                 }
+            } finally {
+                releaseSession(session);
+                m_metrics.record(defaultRepositoryStage(repo), repoStart, true);
             }
-        } catch (InvalidVersionSpecificationException e) {
-            // Should not happen
         }
 
-        // 2). Resolve using collection of remote repositories with single local repository as cache
-        RepositorySystemSession session = findOrCreateSession(null);
+        if (pending.isEmpty()) {
+            return Arrays.asList(resolved);
+        }
 
+        // 2). remote repositories with single local repository as cache
+        RepositorySystemSession session = findOrCreateSession(null);
         if (session == null) {
             LOG.debug("Skipping remote repository resolution - no local repository configured");
-            return null;
+            return Arrays.asList(resolved);
         }
 
         try {
-            // only now, knowing the session (tied to particular local repository) we can
-            // preprocess list of remote repositories, applying mirror, proxy and auth configuration
-            // this was done manually in Pax URL Aether 2.6.x, where assignProxyAndMirrors() was doing
-            // complex mirror/proxy/auth processing and also checking "effective" checsum/update policies
-            // inside a mirror when it was used to mirror more repositories.
-            // now everything is done with single call
-            List<RemoteRepository> configuredRepositories
-                    = assignMirrorsAndProxies(session, remoteRepositories);
-
-            artifact = resolveLatestVersionRange(session, configuredRepositories, artifact);
-            return m_repoSystem
-                    .resolveArtifact(session, new ArtifactRequest(artifact, configuredRepositories, null))
-                    .getArtifact().getFile();
-        } catch (ArtifactResolutionException e) {
-            // we know there's one ArtifactResult, because there was one ArtifactRequest
-            ArtifactResolutionException original = new ArtifactResolutionException(e.getResults(),
-                    "Error resolving artifact " + artifact.toString(), null);
+            // most of the artifacts share the same (null) extra repository URL
+            Map<MavenRepositoryURL, List<RemoteRepository>> configuredRepositories = new IdentityHashMap<>();
+            List<ArtifactRequest> requests = new ArrayList<>(pending.size());
+            for (int i : pending) {
+                List<RemoteRepository> repositories = configuredRepositories.computeIfAbsent(urls.get(i),
+                        url -> configureRepositories(session, selectRemoteRepositories(url)));
+                requests.add(new ArtifactRequest(normalized[i], orderRepositories(repositories, normalized[i]), null));
+            }
 
-            throw configureIOException(original, e, e.getResult().getExceptions());
-        } catch (VersionRangeResolutionException e) {
-            // we know there's one ArtifactResult, because there was one ArtifactRequest
-            VersionRangeResolutionException original = new VersionRangeResolutionException(e.getResult(),
-                    "Error resolving artifact " + artifact.toString(), null);
+            long remoteStart = m_metrics.start();
+            try {
+                List<ArtifactResult> results = m_repoSystem.resolveArtifacts(session, requests);
+                m_metrics.record("remoteArtifact", remoteStart, true);
+                Iterator<Integer> it = pending.iterator();
+                for (ArtifactResult result : results) {
+                    resolved[it.next()] = result.getArtifact().getFile();
+                    if (result.getRepository() != null) {
+                        m_metrics.record("remoteArtifact." + result.getRepository().getId(), remoteStart, true);
+                    }
+                }
+            } catch (ArtifactResolutionException e) {
+                m_metrics.record("remoteArtifact", remoteStart, false);
+                List<Artifact> failed = new ArrayList<>();
+                List<Exception> exceptions = new ArrayList<>();
+                for (ArtifactResult result : e.getResults()) {
+                    if (!result.isResolved()) {
+                        failed.add(result.getRequest().getArtifact());
+                        exceptions.addAll(result.getExceptions());
+                    }
+                }
+                ArtifactResolutionException original = new ArtifactResolutionException(e.getResults(),
+                        "Error resolving artifacts " + failed, null);
 
-            throw configureIOException(original, e, e.getResult().getExceptions());
+                throw configureIOException(original, e, exceptions);
+            }
         } finally {
             releaseSession(session);
         }
+
+        if (LOG.isDebugEnabled()) {
+            for (int i = 0; i < count; i++) {
+                if (resolved[i] != null) {
+                    LOG.debug("Resolved ({}) as {}", normalized[i].toString(), resolved[i].getAbsolutePath());
+                }
+            }
+        }
+
+        return Arrays.asList(resolved);
+    }
+
+    /**
+     * Checks whether the artifact's version is not a version range.
+     *
+     * @param artifact
+     * @return
+     */
+    private boolean isFixedVersion(Artifact artifact) {
+        try {
+            VersionConstraint vc = m_versionIndex.constraint(artifact.getVersion());
+            return vc.getVersion() != null;
+        } catch (InvalidVersionSpecificationException e) {
+            return false;
+        }
     }
 
     @Override
@@ -574,6 +1580,18 @@ public class AetherBasedResolver implements MavenResolver {
 
     @Override
     public File resolveMetadata(String groupId, String artifactId, String type, String version, Exception previousException) throws IOException {
+        long start = m_metrics.start();
+        boolean success = false;
+        try {
+            File file = doResolveMetadata(groupId, artifactId, type, version);
+            success = true;
+            return file;
+        } finally {
+            m_metrics.record("metadata", start, success);
+        }
+    }
+
+    private File doResolveMetadata(String groupId, String artifactId, String type, String version) throws IOException {
         RepositorySystemSession session = findOrCreateSession(null);
         if (session == null) {
             LOG.warn("Can't resolve metadata without configured local repository");
@@ -589,7 +1607,7 @@ public class AetherBasedResolver implements MavenResolver {
             List<RemoteRepository> remoteRepositories = selectRemoteRepositories(null);
             // repositories processed (mirrors, proxies, auth)
             List<RemoteRepository> configuredRepositories
-                    = assignMirrorsAndProxies(session, remoteRepositories);
+                    = configureRepositories(session, remoteRepositories);
 
             for (RemoteRepository repository : configuredRepositories) {
                 MetadataRequest request = new MetadataRequest(metadata, repository, null);
@@ -599,67 +1617,232 @@ public class AetherBasedResolver implements MavenResolver {
             MetadataRequest request = new MetadataRequest(metadata, null, null);
             request.setFavorLocalRepository(true);
             requests.add(request);
-            org.apache.maven.artifact.repository.metadata.Metadata mr = new org.apache.maven.artifact.repository.metadata.Metadata();
-            mr.setModelVersion("1.1.0");
-            mr.setGroupId(metadata.getGroupId());
-            mr.setArtifactId(metadata.getArtifactId());
-            mr.setVersioning(new Versioning());
-            boolean merged = false;
-            List<MetadataResult> results = m_repoSystem.resolveMetadata(session, requests);
-            for (MetadataResult result : results) {
-                if (result.getMetadata() != null && result.getMetadata().getFile() != null) {
-                    FileInputStream fis = new FileInputStream(result.getMetadata().getFile());
-                    org.apache.maven.artifact.repository.metadata.Metadata m = new MetadataXpp3Reader().read(fis, false);
-                    fis.close();
-                    if (m.getVersioning() != null) {
-                        mr.getVersioning().setLastUpdated(latestTimestamp(mr.getVersioning().getLastUpdated(), m.getVersioning().getLastUpdated()));
-                        mr.getVersioning().setLatest(latestVersion(mr.getVersioning().getLatest(), m.getVersioning().getLatest()));
-                        mr.getVersioning().setRelease(latestVersion(mr.getVersioning().getRelease(), m.getVersioning().getRelease()));
-                        for (String v : m.getVersioning().getVersions()) {
-                            if (!mr.getVersioning().getVersions().contains(v)) {
-                                mr.getVersioning().getVersions().add(v);
-                            }
-                        }
-                        mr.getVersioning().getSnapshotVersions().addAll(m.getVersioning().getSnapshotVersions());
+
+            String key = metadataKey(session, configuredRepositories, metadata);
+            File cached = m_metadataCache.get(key);
+            if (cached != null) {
+                return cached;
+            }
+
+            // files that may be merged - their changes invalidate cached metadata
+            Set<File> sources = new LinkedHashSet<>();
+            LocalRepositoryManager lrm = session.getLocalRepositoryManager();
+            File basedir = lrm.getRepository().getBasedir();
+            for (RemoteRepository repository : configuredRepositories) {
+                sources.add(new File(basedir, lrm.getPathForRemoteMetadata(metadata, repository, "")));
+            }
+            sources.add(new File(basedir, lrm.getPathForLocalMetadata(metadata)));
+
+            MetadataMerger merger = new MetadataMerger(metadata.getGroupId(), metadata.getArtifactId());
+            boolean complete = true;
+            if (m_parallelMetadata && requests.size() > 2) {
+                // the session is released by the resolution task, which may still run after a timeout
+                RepositorySystemSession borrowed = session;
+                session = null;
+                complete = resolveMetadataInParallel(borrowed, requests, merger, sources);
+            } else {
+                List<MetadataResult> results = m_repoSystem.resolveMetadata(session, requests);
+                for (MetadataResult result : results) {
+                    if (result.getMetadata() != null && result.getMetadata().getFile() != null) {
+                        sources.add(result.getMetadata().getFile());
+                        merger.merge(result.getMetadata().getFile());
                     }
-                    merged = true;
                 }
             }
-            if (merged) {
-                mr.getVersioning().getVersions().sort(VERSION_COMPARATOR);
-                mr.getVersioning().getSnapshotVersions().sort(SNAPSHOT_VERSION_COMPARATOR);
-                File tmpFile = Files.createTempFile("mvn-", ".tmp").toFile();
-                try (FileOutputStream fos = new FileOutputStream(tmpFile)) {
-                    new MetadataXpp3Writer().write(fos, mr);
+            if (merger.isMerged()) {
+                // file named after the content - no new file if the metadata didn't change
+                File file = m_metadataFiles.write(merger);
+                if (complete) {
+                    m_metadataCache.put(key, file, sources, metadataExpiration(configuredRepositories));
                 }
-                return tmpFile;
+                return file;
             }
             return null;
         } catch (Exception e) {
             throw new IOException("Unable to resolve metadata", e);
         } finally {
-            releaseSession(session);
+            if (session != null) {
+                releaseSession(session);
+            }
         }
     }
 
-    private String latestTimestamp(String t1, String t2) {
-        if (t1 == null) {
-            return t2;
-        } else if (t2 == null) {
-            return t1;
-        } else {
-            return t1.compareTo(t2) < 0 ? t2 : t1;
+    /**
+     * <p>Resolves metadata from all the repositories at the same time and parses downloaded files in separate
+     * tasks.</p>
+     *
+     * <p>Locking in Maven Resolver serializes concurrent downloads of the same metadata, so instead of calling
+     * the resolver for each repository separately, a single call is made with as many resolver threads as
+     * there are repositories, where connect and request timeouts are limited to
+     * {@link ServiceConstants#PROPERTY_PARALLEL_METADATA_TIMEOUT}. These timeouts don't limit repositories that
+     * send the data slowly, so the whole call is bounded by the same time too. When it doesn't finish in time,
+     * it's cancelled and only metadata of repositories which were {@link MetadataTransfers completely transferred}
+     * (or didn't need a transfer) is merged. Repositories that fail or time out are skipped.</p>
+     *
+     * <p>The resolution runs on {@link #metadataExecutor()}, which is shut down by {@link #close()}. Because
+     * it may still use the session after a timeout, the session is released by the resolution task.</p>
+     *
+     * @param session borrowed session - released by this method (possibly later)
+     * @param requests
+     * @param merger
+     * @param sources
+     * @return {@code true} if metadata from all the repositories was merged
+     * @throws IOException
+     */
+    private boolean resolveMetadataInParallel(RepositorySystemSession session, List<MetadataRequest> requests,
+            MetadataMerger merger, Set<File> sources) throws IOException {
+        DefaultRepositorySystemSession parallelSession = new DefaultRepositorySystemSession(session);
+        int timeout = (int) Math.min(Integer.MAX_VALUE, Math.max(1L, m_parallelMetadataTimeout));
+        // per-server timeouts
+        for (Map.Entry<String, Object> e : session.getConfigProperties().entrySet()) {
+            if (e.getKey().startsWith(ConfigurationProperties.CONNECT_TIMEOUT + ".")
+                    || e.getKey().startsWith(ConfigurationProperties.REQUEST_TIMEOUT + ".")) {
+                int value = ConfigUtils.getInteger(session.getConfigProperties(), timeout, e.getKey());
+                parallelSession.setConfigProperty(e.getKey(), value > 0 ? Math.min(value, timeout) : timeout);
+            }
+        }
+        parallelSession.setConfigProperty(ConfigurationProperties.CONNECT_TIMEOUT, Math.min(timeout,
+                ConfigUtils.getInteger(session, ConfigurationProperties.DEFAULT_CONNECT_TIMEOUT, ConfigurationProperties.CONNECT_TIMEOUT)));
+        parallelSession.setConfigProperty(ConfigurationProperties.REQUEST_TIMEOUT, Math.min(timeout,
+                ConfigUtils.getInteger(session, ConfigurationProperties.DEFAULT_REQUEST_TIMEOUT, ConfigurationProperties.REQUEST_TIMEOUT)));
+        parallelSession.setConfigProperty("aether.metadataResolver.threads", Math.max(4, requests.size()));
+        MetadataTransfers transfers = new MetadataTransfers(System.currentTimeMillis() + timeout);
+        parallelSession.setTransferListener(ChainedTransferListener.newInstance(session.getTransferListener(), transfers));
+
+        LocalRepositoryManager lrm = session.getLocalRepositoryManager();
+
+        boolean complete = true;
+        FutureTask<List<MetadataResult>> resolution = new FutureTask<>(() -> m_repoSystem.resolveMetadata(parallelSession, requests));
+        Runnable resolutionTask = () -> {
+            try {
+                resolution.run();
+            } finally {
+                // also when the resolution was cancelled before it started
+                releaseSession(session);
+            }
+        };
+        ExecutorService metadataExecutor = metadataExecutor();
+        try {
+            if (metadataExecutor == null) {
+                resolutionTask.run();
+            } else {
+                metadataExecutor.execute(resolutionTask);
+            }
+        } catch (RejectedExecutionException e) {
+            resolutionTask.run();
+        }
+        List<MetadataResult> results;
+        try {
+            results = resolution.get(timeout, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            resolution.cancel(true);
+            for (MetadataRequest request : requests) {
+                RemoteRepository repository = request.getRepository();
+                if (repository != null && !transfers.isComplete(repository.getId())) {
+                    LOG.warn("Metadata {} not resolved from {} within {}ms, skipping this repository",
+                            request.getMetadata(), repository, timeout);
+                    continue;
+                }
+                File file = new File(lrm.getRepository().getBasedir(), repository == null
+                        ? lrm.getPathForLocalMetadata(request.getMetadata())
+                        : lrm.getPathForRemoteMetadata(request.getMetadata(), repository, ""));
+                if (file.isFile()) {
+                    merger.merge(file);
+                }
+            }
+            return false;
+        } catch (InterruptedException e) {
+            resolution.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while resolving metadata");
+        } catch (ExecutionException e) {
+            throw new IOException(e.getCause().getMessage(), e.getCause());
+        }
+
+        ExecutorService executor = parallelExecutor();
+        List<FutureTask<MetadataMerger>> tasks = new ArrayList<>(results.size());
+        try {
+            for (MetadataResult result : results) {
+                if (result.getException() != null && !(result.getException() instanceof MetadataNotFoundException)) {
+                    LOG.warn("Problem resolving metadata {} from {}, skipping this repository: {}",
+                            result.getRequest().getMetadata(), result.getRequest().getRepository(),
+                            result.getException().getMessage());
+                    complete = false;
+                }
+                if (result.getMetadata() == null || result.getMetadata().getFile() == null) {
+                    continue;
+                }
+                File file = result.getMetadata().getFile();
+                sources.add(file);
+                FutureTask<MetadataMerger> task = new FutureTask<>(() -> {
+                    MetadataMerger m = new MetadataMerger(merger.getGroupId(), merger.getArtifactId());
+                    m.merge(file);
+                    return m;
+                });
+                tasks.add(task);
+                try {
+                    if (executor == null) {
+                        task.run();
+                    } else {
+                        executor.execute(task);
+                    }
+                } catch (RejectedExecutionException e) {
+                    task.run();
+                }
+            }
+            for (FutureTask<MetadataMerger> task : tasks) {
+                merger.merge(task.get());
+            }
+            return complete;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while resolving metadata");
+        } catch (ExecutionException e) {
+            throw new IOException(e.getCause().getMessage(), e.getCause());
+        } finally {
+            for (FutureTask<MetadataMerger> task : tasks) {
+                task.cancel(false);
+            }
         }
     }
 
-    private String latestVersion(String v1, String v2) {
-        if (v1 == null) {
-            return v2;
-        } else if (v2 == null) {
-            return v1;
-        } else {
-            return VERSION_COMPARATOR.compare(v1, v2) < 0 ? v2 : v1;
+    /**
+     * Key identifying merged metadata resolved from given repositories.
+     *
+     * @param session
+     * @param remoteRepositories
+     * @param metadata
+     * @return
+     */
+    private String metadataKey(RepositorySystemSession session, List<RemoteRepository> remoteRepositories, Metadata metadata) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(metadata.getGroupId()).append(':').append(metadata.getArtifactId()).append(':')
+                .append(metadata.getVersion()).append(':').append(metadata.getType());
+        sb.append('|').append(session.getLocalRepository().getBasedir());
+        for (RemoteRepository repo : remoteRepositories) {
+            sb.append('|').append(repo.getId()).append('=').append(repo.getUrl());
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Merged metadata (both release and snapshot) is valid until any remote repository has to be checked
+     * for updates.
+     *
+     * @param remoteRepositories
+     * @return
+     */
+    private long metadataExpiration(List<RemoteRepository> remoteRepositories) {
+        long now = System.currentTimeMillis();
+        long expiration = ResolutionCache.NEVER;
+        for (RemoteRepository repo : remoteRepositories) {
+            for (RepositoryPolicy policy : Arrays.asList(repo.getPolicy(false), repo.getPolicy(true))) {
+                if (policy.isEnabled()) {
+                    expiration = Math.min(expiration, ResolutionCache.expiration(policy.getUpdatePolicy(), now));
+                }
+            }
         }
+        return expiration;
     }
 
     // ---- upload methods
@@ -829,21 +2012,89 @@ public class AetherBasedResolver implements MavenResolver {
             List<RemoteRepository> repositories, Artifact artifact)
             throws VersionRangeResolutionException {
 
-        VersionRangeResult versionResult = m_repoSystem.resolveVersionRange(session,
-                new VersionRangeRequest(artifact, repositories, null));
-        if (versionResult != null) {
-            Version v = versionResult.getHighestVersion();
-            if (v != null) {
-                artifact = artifact.setVersion(v.toString());
-            } else {
-                throw new VersionRangeResolutionException(versionResult, "No highest version found for " + artifact);
+        long start = m_metrics.start();
+        boolean success = false;
+        try {
+            VersionRangeResult versionResult = m_repoSystem.resolveVersionRange(session,
+                    new VersionRangeRequest(artifact, repositories, null));
+            if (versionResult != null) {
+                Version v = versionResult.getHighestVersion();
+                if (v != null) {
+                    artifact = artifact.setVersion(v.toString());
+                } else {
+                    throw new VersionRangeResolutionException(versionResult, "No highest version found for " + artifact);
+                }
             }
+            success = true;
+            return artifact;
+        } finally {
+            m_metrics.record("versionRange", start, success);
         }
-        return artifact;
     }
 
     // ---- methods that prepare lists of repositories to use
 
+    /**
+     * Returns current {@link RepositoryTopology}, building new one if there's none yet or if any of
+     * {@code @multi} directories has changed.
+     *
+     * @return
+     */
+    private RepositoryTopology topology() {
+        RepositoryTopology topology = m_topology;
+        if (topology == null || topology.isStale()) {
+            synchronized (this) {
+                topology = m_topology;
+                if (topology == null || topology.isStale()) {
+                    topology = buildTopology();
+                    m_topology = topology;
+                }
+            }
+        }
+        return topology;
+    }
+
+    /**
+     * Called by {@link MultiDirectoryWatcher} after change of {@code @multi} directory, so the new
+     * {@link RepositoryTopology} is ready before next resolution.
+     */
+    private void refreshTopology() {
+        if (m_shutdown.get()) {
+            return;
+        }
+        synchronized (this) {
+            // close() may have been called while waiting for the lock
+            if (!m_shutdown.get()) {
+                m_topology = buildTopology();
+            }
+        }
+    }
+
+    /**
+     * Builds new {@link RepositoryTopology} from configuration, listing {@code @multi} directories. The
+     * directories are then watched (if possible) to detect further changes.
+     *
+     * @return
+     */
+    private RepositoryTopology buildTopology() {
+        long timestamp = System.currentTimeMillis();
+        long generation = m_multiDirectoryWatcher == null ? 0L : m_multiDirectoryWatcher.getGeneration();
+        Map<File, Long> multiDirectories = new LinkedHashMap<>();
+        List<LocalRepositoryWithConfig> defaultRepositories = buildDefaultRepositories(multiDirectories);
+        List<RemoteRepository> remoteRepositories = new ArrayList<>();
+        try {
+            for (MavenRepositoryURL r : m_config.getRepositories()) {
+                selectRemoteRepositories(remoteRepositories, r, multiDirectories);
+            }
+        } catch (MalformedURLException exc) {
+            LOG.error("Invalid remote repository URLs", exc);
+        }
+        boolean watched = m_multiDirectoryWatcher != null && m_multiDirectoryWatcher.watch(multiDirectories.keySet());
+        return new RepositoryTopology(defaultRepositories, remoteRepositories,
+                assignMirrorsAndProxies(null, remoteRepositories), multiDirectories, timestamp,
+                watched ? m_multiDirectoryWatcher : null, generation);
+    }
+
     /**
      * Prepare list of <em>local repositories</em> which serve the purpose of <em>default repositories</em>.
      * These are Pax URL specific read-only repositories used to get locally available artifacts without
@@ -852,6 +2103,16 @@ public class AetherBasedResolver implements MavenResolver {
      * @return
      */
     List<LocalRepositoryWithConfig> selectDefaultRepositories() {
+        return topology().defaultRepositories;
+    }
+
+    /**
+     * Builds the list of <em>default repositories</em> from configuration.
+     *
+     * @param multiDirectories collects listed {@code @multi} directories with their modification times
+     * @return
+     */
+    private List<LocalRepositoryWithConfig> buildDefaultRepositories(Map<File, Long> multiDirectories) {
         List<LocalRepositoryWithConfig> list = new ArrayList<>();
         List<MavenRepositoryURL> urls = Collections.emptyList();
         try {
@@ -866,6 +2127,7 @@ public class AetherBasedResolver implements MavenResolver {
                 continue;
             }
             if (r.isMulti()) {
+                multiDirectories.put(r.getFile(), r.getFile().lastModified());
                 selectDefaultRepositories(list, r, r.getFile());
             } else {
                 selectDefaultRepository(list, r);
@@ -915,43 +2177,47 @@ public class AetherBasedResolver implements MavenResolver {
      * available (cached) in any <em>default repository</em>. If artifact is resolved and downloaded it is stored
      * (cached) in single {@link LocalRepository} (from current {@link RepositorySystemSession session}.</p>
      *
-     * <p>Returned list of remote repositories is not yet processed (mirrors, proxies, auth).</p>
+     * <p>Returned list of remote repositories is not yet processed (mirrors, proxies, auth). Without
+     * {@code extraRepository}, the unmodifiable list from current {@link RepositoryTopology} is returned.</p>
      *
      * @param extraRepository
      * @return
      */
     List<RemoteRepository> selectRemoteRepositories(MavenRepositoryURL extraRepository) {
-        List<RemoteRepository> list = new ArrayList<>();
-        List<MavenRepositoryURL> urls = Collections.emptyList();
-        try {
-            urls = m_config.getRepositories();
-        } catch (MalformedURLException exc) {
-            LOG.error("Invalid remote repository URLs", exc);
+        RepositoryTopology topology = topology();
+        if (extraRepository == null) {
+            return topology.remoteRepositories;
         }
 
-        List<MavenRepositoryURL> toCheck = new ArrayList<>(urls);
-        if (extraRepository != null) {
-            toCheck.add(extraRepository);
-        }
+        List<RemoteRepository> list = new ArrayList<>(topology.remoteRepositories);
+        selectRemoteRepositories(list, extraRepository, new HashMap<>());
+        return list;
+    }
 
-        for (MavenRepositoryURL r : toCheck) {
-            if (r.isSplit()) {
-                LOG.warn("Remote repository {} is configured with @split option. " +
-                        "Split repositories can only be default or local. Ignoring.", r);
-                continue;
-            }
-            if (r.isMulti()) {
-                if (r.getFile() == null) {
-                    LOG.warn("Remote repository {} is marked as @multi repository, but is not using file: protocol", r);
-                } else {
-                    selectRemoteRepositories(list, r.getFile());
-                }
+    /**
+     * Adds {@link RemoteRepository remote repositories} for single configured {@link MavenRepositoryURL} -
+     * one repository or, for {@code @multi} repository, one for each subdirectory.
+     *
+     * @param list
+     * @param r
+     * @param multiDirectories collects listed {@code @multi} directories with their modification times
+     */
+    private void selectRemoteRepositories(List<RemoteRepository> list, MavenRepositoryURL r, Map<File, Long> multiDirectories) {
+        if (r.isSplit()) {
+            LOG.warn("Remote repository {} is configured with @split option. " +
+                    "Split repositories can only be default or local. Ignoring.", r);
+            return;
+        }
+        if (r.isMulti()) {
+            if (r.getFile() == null) {
+                LOG.warn("Remote repository {} is marked as @multi repository, but is not using file: protocol", r);
             } else {
-                selectRemoteRepository(list, r);
+                multiDirectories.put(r.getFile(), r.getFile().lastModified());
+                selectRemoteRepositories(list, r.getFile());
             }
+        } else {
+            selectRemoteRepository(list, r);
         }
-
-        return list;
     }
 
     /**
@@ -1085,6 +2351,38 @@ public class AetherBasedResolver implements MavenResolver {
         return m_repoSystem.newResolutionRepositories(s, repositories);
     }
 
+    /**
+     * Version of {@link #assignMirrorsAndProxies} for sessions created by this resolver - these use the same
+     * mirror, proxy and authentication selectors, so for repositories from current {@link RepositoryTopology}
+     * the already processed list is returned.
+     *
+     * @param session
+     * @param repositories
+     * @return
+     */
+    private List<RemoteRepository> configureRepositories(RepositorySystemSession session, List<RemoteRepository> repositories) {
+        RepositoryTopology topology = m_topology;
+        if (topology != null && repositories == topology.remoteRepositories) {
+            return topology.configuredRepositories;
+        }
+        return assignMirrorsAndProxies(session, repositories);
+    }
+
+    /**
+     * Returns configured remote repositories in order in which they should be tried for given artifact - the same
+     * list unless {@link ServiceConstants#PROPERTY_ADAPTIVE_REPOSITORY_ORDER adaptive order} is enabled.
+     *
+     * @param repositories
+     * @param artifact
+     * @return
+     */
+    private List<RemoteRepository> orderRepositories(List<RemoteRepository> repositories, Artifact artifact) {
+        if (!m_adaptiveRepositoryOrder) {
+            return repositories;
+        }
+        return m_repositoryOrdering.order(repositories, artifact, m_pinnedRepositories);
+    }
+
     // ---- methods that produce Maven Resolver objects (system and session)
 
     /**
@@ -1106,8 +2404,8 @@ public class AetherBasedResolver implements MavenResolver {
 
     /**
      * Returns a {@link RepositorySystemSession} which contains {@link LocalRepository} specific
-     * configuration. Existing session is taken from cache (deque) and created if there's no session
-     * for given repository yet.
+     * configuration. Existing session is taken from the {@link SessionPool pool} and created if there's no
+     * idle session for given repository.
      *
      * @param repo
      * @return
@@ -1123,19 +2421,12 @@ public class AetherBasedResolver implements MavenResolver {
             repo = new LocalRepositoryWithConfig(m_localRepository, m_config.getLocalMavenRepositoryURL());
         }
 
-        RepositorySystemSession session = null;
-        if (!m_shutdown.get()) {
+        if (m_shutdown.get()) {
             // when the resolver is shut down, let other thread continue with non-cached session - it may
-            // fail later, but the session cache will be empty
-            Deque<RepositorySystemSession> deque = sessions.get(repo.repository);
-            if (deque != null) {
-                session = deque.pollFirst();
-            }
-        }
-        if (session == null) {
-            session = newRepositorySystemSession(repo);
+            // fail later, but the session pool will be empty
+            return newRepositorySystemSession(repo);
         }
-        return session;
+        return m_sessionPool.borrow(repo);
     }
 
     /**
@@ -1144,16 +2435,38 @@ public class AetherBasedResolver implements MavenResolver {
      * @param session
      */
     private void releaseSession(RepositorySystemSession session) {
-        if (!m_shutdown.get()) {
-            LocalRepository repo = session.getLocalRepository();
-            Deque<RepositorySystemSession> deque = sessions.get(repo);
-            if (deque == null) {
-                sessions.putIfAbsent(repo, new ConcurrentLinkedDeque<>());
-                deque = sessions.get(repo);
-            }
-            session.getData().set(SESSION_CHECKS, null);
-            deque.add(session);
-        }
+        // the pool may be already cleared or may be used by next resolver
+        m_sessionPool.release(session);
+    }
+
+    /**
+     * Returns the pool of sessions used by this resolver.
+     *
+     * @return
+     */
+    SessionPool getSessionPool() {
+        return m_sessionPool;
+    }
+
+    /**
+     * Returns timings and counters of resolution performed by this resolver (and by resolvers that were
+     * created with this resolver as {@code previous} one).
+     *
+     * @return
+     */
+    public MavenResolverMetrics getMetrics() {
+        return m_metrics;
+    }
+
+    /**
+     * Name of the timer for single <em>default</em> repository.
+     *
+     * @param repo
+     * @return
+     */
+    private static String defaultRepositoryStage(LocalRepositoryWithConfig repo) {
+        String id = repo.repositoryURL == null ? null : repo.repositoryURL.getId();
+        return "defaultRepository." + (id == null ? repo.repository.getBasedir().getName() : id);
     }
 
     /**
@@ -1187,6 +2500,7 @@ public class AetherBasedResolver implements MavenResolver {
         session.setMirrorSelector(m_mirrorSelector);
         session.setProxySelector(m_proxySelector);
         session.setAuthenticationSelector(m_authenticationSelector);
+        session.setTransferListener(m_transferListener);
 
         // some extra configuration
         session.setOffline(m_config.isOffline());
@@ -1387,6 +2701,7 @@ public class AetherBasedResolver implements MavenResolver {
         session.setMirrorSelector(m_mirrorSelector);
         session.setProxySelector(m_proxySelector);
         session.setAuthenticationSelector(m_authenticationSelector);
+        session.setTransferListener(m_transferListener);
 
         // some extra configuration
         session.setOffline(m_config.isOffline());
@@ -1398,6 +2713,54 @@ public class AetherBasedResolver implements MavenResolver {
         return session;
     }
 
+    /**
+     * Remembers repositories with metadata transfers that didn't succeed (yet). Transfers still running
+     * after the deadline are cancelled - but some transports (like HTTP) may still read the rest of the response
+     * before the transfer ends.
+     */
+    private static class MetadataTransfers extends AbstractTransferListener {
+
+        private final long deadline;
+        private final Set<String> incomplete = ConcurrentHashMap.newKeySet();
+
+        MetadataTransfers(long deadline) {
+            this.deadline = deadline;
+        }
+
+        @Override
+        public void transferInitiated(TransferEvent event) throws TransferCancelledException {
+            incomplete.add(event.getResource().getRepositoryId());
+            check(event);
+        }
+
+        @Override
+        public void transferProgressed(TransferEvent event) throws TransferCancelledException {
+            check(event);
+        }
+
+        @Override
+        public void transferSucceeded(TransferEvent event) {
+            incomplete.remove(event.getResource().getRepositoryId());
+        }
+
+        /**
+         * Whether metadata from given repository was transferred or didn't have to be.
+         *
+         * @param repositoryId
+         * @return
+         */
+        boolean isComplete(String repositoryId) {
+            return !incomplete.contains(repositoryId);
+        }
+
+        private void check(TransferEvent event) throws TransferCancelledException {
+            if (System.currentTimeMillis() > deadline) {
+                throw new TransferCancelledException("Transfer of " + event.getResource().getResourceName()
+                        + " from " + event.getResource().getRepositoryUrl() + " timed out");
+            }
+        }
+    }
+
     /**
      * Combination of {@link LocalRepository} and {@link MavenRepositoryURL}
      */
@@ -1411,31 +2774,4 @@ public class AetherBasedResolver implements MavenResolver {
         }
     }
 
-    private static final Comparator<String> VERSION_COMPARATOR = new Comparator<>() {
-        @Override
-        public int compare(String v1, String v2) {
-            try {
-                Version vv1 = new GenericVersionScheme().parseVersion(v1);
-                Version vv2 = new GenericVersionScheme().parseVersion(v2);
-                return vv1.compareTo(vv2);
-            } catch (Exception e) {
-                return v1.compareTo(v2);
-            }
-        }
-    };
-
-    private static final Comparator<SnapshotVersion> SNAPSHOT_VERSION_COMPARATOR = new Comparator<>() {
-        @Override
-        public int compare(SnapshotVersion o1, SnapshotVersion o2) {
-            int c = VERSION_COMPARATOR.compare(o1.getVersion(), o2.getVersion());
-            if (c == 0) {
-                c = o1.getExtension().compareTo(o2.getExtension());
-            }
-            if (c == 0) {
-                c = o1.getClassifier().compareTo(o2.getClassifier());
-            }
-            return c;
-        }
-    };
-
 }
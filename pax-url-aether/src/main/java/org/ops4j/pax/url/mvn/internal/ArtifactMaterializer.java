@@ -0,0 +1,177 @@
+/*
+ * Copyright 2023 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.url.mvn.internal;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileStore;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.ops4j.pax.url.mvn.MavenResolver.Materialization;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>Makes a file available at another path with as little data I/O as possible. Tried in order:</p>
+ * <ol>
+ *     <li>hard link ({@link Files#createLink}) - works only within single filesystem</li>
+ *     <li>reflink (copy-on-write clone) using {@code cp} command - on filesystems like Btrfs, XFS or APFS. Only
+ *     when enabled, because it starts a child process</li>
+ *     <li>{@link FileChannel#transferTo} copy</li>
+ * </ol>
+ *
+ * <p>Target is always created under temporary name in target directory and then moved into place, so
+ * readers never see partially written file. Pairs of filesystems for which reflink failed are remembered, so
+ * the {@code cp} process is not started again for them.</p>
+ */
+class ArtifactMaterializer {
+
+    private static final Logger LOG = LoggerFactory.getLogger(ArtifactMaterializer.class);
+
+    private static final long REFLINK_TIMEOUT = 30L;
+
+    private final String[] reflinkCommand;
+    private final Set<List<FileStore>> noReflink = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Creates the materializer.
+     *
+     * @param reflink whether {@code cp} process may be started to create reflinks
+     */
+    ArtifactMaterializer(boolean reflink) {
+        String os = System.getProperty("os.name", "").toLowerCase(Locale.ENGLISH);
+        if (!reflink) {
+            reflinkCommand = null;
+        } else if (os.startsWith("linux")) {
+            reflinkCommand = new String[] { "cp", "--reflink=always" };
+        } else if (os.startsWith("mac")) {
+            reflinkCommand = new String[] { "cp", "-c" };
+        } else {
+            reflinkCommand = null;
+        }
+    }
+
+    /**
+     * Creates (or replaces) {@code target}, so it has the same content as {@code source}.
+     *
+     * @param source
+     * @param target
+     * @return strategy that was used
+     * @throws IOException
+     */
+    Materialization materialize(Path source, Path target) throws IOException {
+        Path directory = target.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path tmp = directory.resolve("." + target.getFileName() + "." + UUID.randomUUID() + ".tmp");
+        try {
+            Materialization result;
+            if (link(source, tmp)) {
+                result = Materialization.HARD_LINK;
+            } else if (reflink(source, tmp, directory)) {
+                result = Materialization.REFLINK;
+            } else {
+                copy(source, tmp);
+                result = Materialization.COPY;
+            }
+            try {
+                Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+            return result;
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    private boolean link(Path source, Path tmp) {
+        try {
+            Files.createLink(tmp, source);
+            return true;
+        } catch (IOException | UnsupportedOperationException | SecurityException e) {
+            LOG.debug("Can't create hard link to {}: {}", source, e.getMessage());
+            return false;
+        }
+    }
+
+    private boolean reflink(Path source, Path tmp, Path directory) throws IOException {
+        if (reflinkCommand == null) {
+            return false;
+        }
+        List<FileStore> stores;
+        try {
+            stores = Arrays.asList(Files.getFileStore(source), Files.getFileStore(directory));
+        } catch (IOException e) {
+            return false;
+        }
+        if (noReflink.contains(stores)) {
+            return false;
+        }
+        String[] command = Arrays.copyOf(reflinkCommand, reflinkCommand.length + 2);
+        command[command.length - 2] = source.toAbsolutePath().toString();
+        command[command.length - 1] = tmp.toString();
+        try {
+            Process process = new ProcessBuilder(command)
+                    .redirectErrorStream(true)
+                    .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                    .start();
+            if (!process.waitFor(REFLINK_TIMEOUT, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+                LOG.debug("Reflink of {} timed out", source);
+            } else if (process.exitValue() == 0) {
+                return true;
+            }
+        } catch (IOException e) {
+            LOG.debug("Can't reflink {}: {}", source, e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while creating reflink to " + source);
+        }
+        noReflink.add(stores);
+        Files.deleteIfExists(tmp);
+        return false;
+    }
+
+    void copy(Path source, Path tmp) throws IOException {
+        try (FileChannel in = FileChannel.open(source, StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(tmp, StandardOpenOption.WRITE,
+                     StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            long size = in.size();
+            long position = 0L;
+            while (position < size) {
+                long n = in.transferTo(position, size - position, out);
+                if (n <= 0) {
+                    throw new IOException("Can't copy " + source + ": no data transferred at position "
+                            + position + " of " + size);
+                }
+                position += n;
+            }
+        }
+    }
+
+}
@@ -18,12 +18,12 @@
 package org.ops4j.pax.url.mvn.internal;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.net.URLConnection;
+import java.nio.file.Path;
 
 import org.ops4j.lang.NullArgumentException;
 import org.ops4j.pax.url.mvn.MavenResolver;
@@ -77,6 +77,16 @@ public class Connection extends URLConnection {
      */
     private final MavenResolver m_resolver;
 
+    /**
+     * Parsed url.
+     */
+    private final MavenCoordinates m_coordinates;
+
+    /**
+     * Resolved artifact - set on first access.
+     */
+    private File m_file;
+
     /**
      * Creates a new connection.
      *
@@ -94,7 +104,7 @@ public class Connection extends URLConnection {
 
         m_resolver = resolver;
         // Verify the url syntax, will throw an exception when invalid
-        new Parser( url.getPath() );
+        m_coordinates = MavenCoordinates.parse( url.getPath() );
     }
 
 
@@ -109,14 +119,57 @@ public class Connection extends URLConnection {
         // do nothing
     }
 
+    /**
+     * Returns a stream of resolved artifact. The stream is backed by {@link java.nio.channels.FileChannel}, so
+     * {@link InputStream#transferTo(java.io.OutputStream)} doesn't copy the content through the heap.
+     *
+     * @see java.net.URLConnection#getInputStream()
+     */
     @Override
     public InputStream getInputStream()
         throws IOException
     {
-        connect();
-        LOG.debug( "Resolving [" + url.toExternalForm() + "]" );
-        File file = m_resolver.resolve( url.toExternalForm() );
-        return new FileInputStream( file );
+        return new FileChannelInputStream( getPath() );
+    }
+
+    /**
+     * Returns resolved artifact file (resolving it if needed), so callers may copy or link the file
+     * directly instead of reading the stream.
+     *
+     * @return resolved artifact
+     * @throws IOException if the artifact can't be resolved
+     */
+    public synchronized File getFile()
+        throws IOException
+    {
+        if( m_file == null )
+        {
+            connect();
+            LOG.debug( "Resolving [" + url.toExternalForm() + "]" );
+            if( m_resolver instanceof AetherBasedResolver && url.getQuery() == null && url.getRef() == null )
+            {
+                // the path is the whole url (without mvn:), so no need to parse it again
+                m_file = ( (AetherBasedResolver) m_resolver ).resolve( m_coordinates, null );
+            }
+            else
+            {
+                m_file = m_resolver.resolve( url.toExternalForm() );
+            }
+        }
+        return m_file;
+    }
+
+    /**
+     * Returns resolved artifact as {@link Path}.
+     *
+     * @return resolved artifact
+     * @throws IOException if the artifact can't be resolved
+     * @see #getFile()
+     */
+    public Path getPath()
+        throws IOException
+    {
+        return getFile().toPath();
     }
 
 }
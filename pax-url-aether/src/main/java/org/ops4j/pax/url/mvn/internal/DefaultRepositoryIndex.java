@@ -0,0 +1,500 @@
+/*
+ * Copyright 2023 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.url.mvn.internal;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.nio.file.attribute.UserPrincipal;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>Index of the content of <em>default</em> repository - for each directory (relative to repository base
+ * directory, using {@code /} separators) there's its modification time and a list of its children (files and
+ * directories).</p>
+ *
+ * <p>The index is stored in a binary file with directories sorted by path. The file is memory-mapped when loaded
+ * and directories are looked up directly in the mapped buffer using binary search. The whole index is rebuilt
+ * when modification time of repository base directory changes or when a change of any indexed directory is
+ * detected.</p>
+ *
+ * <p>Because changes deeper in the directory structure don't change modification time of repository base
+ * directory, negative answers are not trusted blindly - an artifact not found in the index is missing only
+ * if the deepest indexed directory on its path wasn't modified since indexing. A directory modified shortly
+ * before the index was built may be modified again without changing its modification time, so such directory
+ * is never considered unchanged.</p>
+ */
+class DefaultRepositoryIndex {
+
+    private static final Logger LOG = LoggerFactory.getLogger(DefaultRepositoryIndex.class);
+
+    private static final int MAGIC = 0x50415849; // PAXI
+    private static final int VERSION = 2;
+
+    /**
+     * Directories modified less than this before building the index may be modified again without
+     * changing their modification time.
+     */
+    private static final long TIMESTAMP_GRANULARITY = 2000L;
+
+    private final File basedir;
+    private final long timestamp;
+    private final long created;
+    private final long lastModified;
+    // index content - directories are read directly from this (possibly mapped) buffer
+    private final ByteBuffer buffer;
+    private final int count;
+    private final int table;
+
+    // set when a change of indexed directory is detected
+    private volatile boolean changed;
+
+    private DefaultRepositoryIndex(File basedir, ByteBuffer buffer) {
+        this.basedir = basedir;
+        this.buffer = buffer;
+        ByteBuffer header = buffer.duplicate();
+        header.position(8);
+        this.timestamp = header.getLong();
+        this.created = header.getLong();
+        this.lastModified = header.getLong();
+        readString(header);
+        this.count = header.getInt();
+        this.table = header.position();
+    }
+
+    /**
+     * Loads an index of given repository from index directory or builds (and stores) new one if there's
+     * no index yet or if it's not current.
+     *
+     * @param basedir base directory of default repository
+     * @param indexDirectory directory where index files are stored - created as private directory if needed
+     * @return
+     * @throws IOException
+     */
+    static DefaultRepositoryIndex load(File basedir, File indexDirectory) throws IOException {
+        String location = basedir.getAbsolutePath();
+        long timestamp = basedir.lastModified();
+        checkDirectory(indexDirectory);
+        File indexFile = new File(indexDirectory, indexName(location));
+
+        if (indexFile.isFile()) {
+            try (FileChannel channel = FileChannel.open(indexFile.toPath(), StandardOpenOption.READ)) {
+                ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+                if (buffer.getInt(0) == MAGIC && buffer.getInt(4) == VERSION && buffer.getLong(8) == timestamp) {
+                    DefaultRepositoryIndex index = new DefaultRepositoryIndex(basedir, buffer);
+                    if (index.isCurrent() && location.equals(index.getLocation())) {
+                        LOG.debug("Loaded index of {} from {}", basedir, indexFile);
+                        return index;
+                    }
+                }
+            } catch (RuntimeException e) {
+                LOG.debug("Can't read index file {}, the index will be rebuilt: {}", indexFile, e.getMessage());
+            }
+        }
+
+        long created = System.currentTimeMillis();
+        Map<String, Directory> directories = scan(basedir.toPath());
+        byte[] content = serialize(location, timestamp, created, directories);
+        write(indexFile, location, content);
+        LOG.debug("Created index of {} in {}", basedir, indexFile);
+
+        return new DefaultRepositoryIndex(basedir, ByteBuffer.wrap(content));
+    }
+
+    /**
+     * Modification time of repository base directory at the time of indexing.
+     *
+     * @return
+     */
+    long getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * Whether the index still reflects the repository. The index is not current when repository base
+     * directory or any indexed directory was changed since indexing or when some directories were modified just
+     * before indexing (and enough time has passed to build trustworthy index).
+     *
+     * @return
+     */
+    boolean isCurrent() {
+        if (changed || basedir.lastModified() != timestamp) {
+            return false;
+        }
+        return lastModified < created - TIMESTAMP_GRANULARITY
+                || System.currentTimeMillis() < created + TIMESTAMP_GRANULARITY;
+    }
+
+    /**
+     * Checks whether a file or directory may exist in the repository. {@code false} is returned only if
+     * the file is not in the index and the deepest indexed directory on its path wasn't changed since indexing.
+     *
+     * @param path path relative to repository base directory
+     * @return
+     */
+    boolean exists(String path) {
+        byte[] key = path.getBytes(StandardCharsets.UTF_8);
+        if (find(key) >= 0) {
+            return true;
+        }
+        String parent = parentPath(path);
+        int entry = find(parent.getBytes(StandardCharsets.UTF_8));
+        if (entry >= 0) {
+            byte[] name = path.substring(path.lastIndexOf('/') + 1).getBytes(StandardCharsets.UTF_8);
+            int position = entry + 4 + buffer.getInt(entry) + 8;
+            int children = buffer.getInt(position);
+            position += 4;
+            for (int c = 0; c < children; c++) {
+                if (compare(position, name) == 0) {
+                    return true;
+                }
+                position += 4 + buffer.getInt(position);
+            }
+        }
+        // deepest indexed directory decides whether the path can't exist
+        while (entry < 0 && !parent.isEmpty()) {
+            parent = parentPath(parent);
+            entry = find(parent.getBytes(StandardCharsets.UTF_8));
+        }
+        return entry < 0 || !isUnchanged(parent, entry);
+    }
+
+    /**
+     * Checks whether a directory is in the index and wasn't changed since indexing, so its
+     * {@link #list(String) content} from the index can be trusted.
+     *
+     * @param path path relative to repository base directory
+     * @return
+     */
+    boolean isIndexed(String path) {
+        int entry = find(path.getBytes(StandardCharsets.UTF_8));
+        return entry >= 0 && isUnchanged(path, entry);
+    }
+
+    /**
+     * Checks whether a directory existed in the repository at the time of indexing.
+     *
+     * @param path path relative to repository base directory
+     * @return
+     */
+    boolean isDirectory(String path) {
+        return find(path.getBytes(StandardCharsets.UTF_8)) >= 0;
+    }
+
+    /**
+     * Returns modification time of a directory at the time of indexing.
+     *
+     * @param path path relative to repository base directory
+     * @return {@code 0} if there's no such directory
+     */
+    long lastModified(String path) {
+        int entry = find(path.getBytes(StandardCharsets.UTF_8));
+        return entry < 0 ? 0L : buffer.getLong(entry + 4 + buffer.getInt(entry));
+    }
+
+    /**
+     * Returns names of files and directories within a directory of the repository at the time of indexing.
+     *
+     * @param path path relative to repository base directory
+     * @return {@code null} if there's no such directory
+     */
+    String[] list(String path) {
+        int entry = find(path.getBytes(StandardCharsets.UTF_8));
+        if (entry < 0) {
+            return null;
+        }
+        int position = entry + 4 + buffer.getInt(entry) + 8;
+        String[] children = new String[buffer.getInt(position)];
+        position += 4;
+        for (int c = 0; c < children.length; c++) {
+            children[c] = readString(position);
+            position += 4 + buffer.getInt(position);
+        }
+        return children;
+    }
+
+    private boolean isUnchanged(String path, int entry) {
+        long indexed = buffer.getLong(entry + 4 + buffer.getInt(entry));
+        if (indexed >= created - TIMESTAMP_GRANULARITY) {
+            // may have been changed without changing modification time
+            return false;
+        }
+        if (new File(basedir, path).lastModified() != indexed) {
+            changed = true;
+            return false;
+        }
+        return true;
+    }
+
+    private String getLocation() {
+        return readString(8 + 8 + 8 + 8);
+    }
+
+    /**
+     * Binary search of a directory in the sorted table of directories.
+     *
+     * @param key UTF-8 encoded path
+     * @return position of directory entry or {@code -1}
+     */
+    private int find(byte[] key) {
+        int low = 0;
+        int high = count - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int entry = buffer.getInt(table + mid * 4);
+            int cmp = compare(entry, key);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return entry;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Compares a string stored at given position with a key - as unsigned bytes.
+     *
+     * @param position
+     * @param key
+     * @return
+     */
+    private int compare(int position, byte[] key) {
+        int length = buffer.getInt(position);
+        int n = Math.min(length, key.length);
+        for (int i = 0; i < n; i++) {
+            int cmp = (buffer.get(position + 4 + i) & 0xff) - (key[i] & 0xff);
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+        return length - key.length;
+    }
+
+    private String readString(int position) {
+        byte[] bytes = new byte[buffer.getInt(position)];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = buffer.get(position + 4 + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static Map<String, Directory> scan(Path root) throws IOException {
+        Map<String, Directory> tree = new HashMap<>();
+        Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                String path = relativePath(root, dir);
+                // checked before the directory is listed
+                tree.put(path, new Directory(dir.toFile().lastModified()));
+                if (!path.isEmpty()) {
+                    tree.get(parentPath(path)).children.add(dir.getFileName().toString());
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                Directory parent = tree.get(parentPath(relativePath(root, file)));
+                if (parent != null) {
+                    parent.children.add(file.getFileName().toString());
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException exc) {
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        return tree;
+    }
+
+    /**
+     * Serializes the index: header, table of positions of directory entries (sorted by UTF-8 bytes of the path)
+     * and the entries (path, modification time and children).
+     */
+    private static byte[] serialize(String location, long timestamp, long created, Map<String, Directory> directories)
+            throws IOException {
+        List<byte[]> paths = new ArrayList<>(directories.size());
+        long lastModified = 0L;
+        for (Map.Entry<String, Directory> e : directories.entrySet()) {
+            paths.add(e.getKey().getBytes(StandardCharsets.UTF_8));
+            lastModified = Math.max(lastModified, e.getValue().lastModified);
+        }
+        paths.sort(DefaultRepositoryIndex::compareBytes);
+
+        ByteArrayOutputStream entries = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(entries);
+        int[] positions = new int[paths.size()];
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = out.size();
+            Directory directory = directories.get(new String(paths.get(i), StandardCharsets.UTF_8));
+            writeBytes(out, paths.get(i));
+            out.writeLong(directory.lastModified);
+            out.writeInt(directory.children.size());
+            for (String child : directory.children) {
+                writeBytes(out, child.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        out.flush();
+
+        ByteArrayOutputStream result = new ByteArrayOutputStream(entries.size() + positions.length * 4 + 256);
+        DataOutputStream header = new DataOutputStream(result);
+        header.writeInt(MAGIC);
+        header.writeInt(VERSION);
+        header.writeLong(timestamp);
+        header.writeLong(created);
+        header.writeLong(lastModified);
+        writeBytes(header, location.getBytes(StandardCharsets.UTF_8));
+        header.writeInt(positions.length);
+        int start = header.size() + positions.length * 4;
+        for (int position : positions) {
+            header.writeInt(start + position);
+        }
+        header.flush();
+        entries.writeTo(result);
+        return result.toByteArray();
+    }
+
+    private static void write(File indexFile, String location, byte[] content) {
+        try {
+            Path tmp = Files.createTempFile(indexFile.getParentFile().toPath(), indexFile.getName(), ".tmp");
+            try (OutputStream os = Files.newOutputStream(tmp)) {
+                os.write(content);
+            }
+            Files.move(tmp, indexFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            // the index is still usable, it'll be rebuilt next time
+            LOG.warn("Can't store index of default repository {} in {}: {}", location, indexFile, e.getMessage());
+        }
+    }
+
+    /**
+     * Creates index directory accessible only by current user or checks that existing directory is owned
+     * by current user - index files are trusted, so they can't be prepared by other users.
+     *
+     * @param directory
+     * @throws IOException
+     */
+    private static void checkDirectory(File directory) throws IOException {
+        Path path = directory.toPath();
+        boolean posix = FileSystems.getDefault().supportedFileAttributeViews().contains("posix");
+        if (!directory.isDirectory()) {
+            Path parent = path.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            if (posix) {
+                Files.createDirectory(path, PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rwx------")));
+            } else {
+                Files.createDirectory(path);
+            }
+            return;
+        }
+        if (posix) {
+            UserPrincipal user = FileSystems.getDefault().getUserPrincipalLookupService()
+                    .lookupPrincipalByName(System.getProperty("user.name"));
+            if (!user.equals(Files.getOwner(path))) {
+                throw new IOException("Index directory " + directory + " is not owned by " + user.getName());
+            }
+            Set<PosixFilePermission> permissions = Files.getPosixFilePermissions(path);
+            if (permissions.contains(PosixFilePermission.GROUP_WRITE) || permissions.contains(PosixFilePermission.OTHERS_WRITE)) {
+                throw new IOException("Index directory " + directory + " is writable by other users");
+            }
+        }
+    }
+
+    private static String indexName(String location) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-1").digest(location.getBytes(StandardCharsets.UTF_8));
+            StringBuilder sb = new StringBuilder();
+            for (byte b : digest) {
+                sb.append(String.format("%02x", b));
+            }
+            return sb.append(".idx").toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e.getMessage(), e);
+        }
+    }
+
+    private static String relativePath(Path root, Path path) {
+        return root.relativize(path).toString().replace(File.separatorChar, '/');
+    }
+
+    private static String parentPath(String path) {
+        int slash = path.lastIndexOf('/');
+        return slash == -1 ? "" : path.substring(0, slash);
+    }
+
+    private static int compareBytes(byte[] b1, byte[] b2) {
+        int n = Math.min(b1.length, b2.length);
+        for (int i = 0; i < n; i++) {
+            int cmp = (b1[i] & 0xff) - (b2[i] & 0xff);
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+        return b1.length - b2.length;
+    }
+
+    private static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static class Directory {
+        final long lastModified;
+        final List<String> children = new ArrayList<>();
+
+        Directory(long lastModified) {
+            this.lastModified = lastModified;
+        }
+    }
+
+}
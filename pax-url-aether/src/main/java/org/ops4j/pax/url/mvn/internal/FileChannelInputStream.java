@@ -0,0 +1,118 @@
+/*
+ * Copyright 2023 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.url.mvn.internal;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+
+/**
+ * <p>{@link InputStream} reading a file through {@link FileChannel}.</p>
+ *
+ * <p>{@link #transferTo(OutputStream)} uses {@link FileChannel#transferTo} so the content doesn't have to be
+ * copied through the heap - especially when the target is a {@link FileOutputStream}.</p>
+ */
+class FileChannelInputStream extends InputStream {
+
+    private final FileChannel channel;
+    private ByteBuffer single;
+
+    FileChannelInputStream(Path path) throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.READ);
+    }
+
+    /**
+     * Underlying channel - positioned at current position of the stream.
+     *
+     * @return
+     */
+    FileChannel getChannel() {
+        return channel;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (single == null) {
+            single = ByteBuffer.allocate(1);
+        }
+        single.clear();
+        int n;
+        do {
+            n = channel.read(single);
+        } while (n == 0);
+        return n < 0 ? -1 : single.get(0) & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        Objects.checkFromIndexSize(off, len, b.length);
+        if (len == 0) {
+            return 0;
+        }
+        return channel.read(ByteBuffer.wrap(b, off, len));
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        if (n <= 0) {
+            return 0;
+        }
+        long position = channel.position();
+        long skipped = Math.min(n, Math.max(0L, channel.size() - position));
+        channel.position(position + skipped);
+        return skipped;
+    }
+
+    @Override
+    public int available() throws IOException {
+        return (int) Math.min(Integer.MAX_VALUE, Math.max(0L, channel.size() - channel.position()));
+    }
+
+    @Override
+    public long transferTo(OutputStream out) throws IOException {
+        Objects.requireNonNull(out, "out");
+        out.flush();
+        WritableByteChannel target = out instanceof FileOutputStream
+                ? ((FileOutputStream) out).getChannel() : Channels.newChannel(out);
+        long position = channel.position();
+        long size = channel.size();
+        long transferred = 0L;
+        while (position + transferred < size) {
+            long n = channel.transferTo(position + transferred, size - position - transferred, target);
+            if (n <= 0) {
+                channel.position(position + transferred);
+                throw new IOException("No data transferred at position " + (position + transferred) + " of " + size);
+            }
+            transferred += n;
+        }
+        channel.position(position + transferred);
+        return transferred;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+}
@@ -0,0 +1,191 @@
+/*
+ * Copyright 2023 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.url.mvn.internal;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+import org.eclipse.aether.util.version.GenericVersionScheme;
+import org.eclipse.aether.version.InvalidVersionSpecificationException;
+import org.eclipse.aether.version.Version;
+import org.eclipse.aether.version.VersionConstraint;
+
+/**
+ * <p>Resolution of version ranges against version directories of local (<em>default</em>) repositories.</p>
+ *
+ * <p>Parsed {@link Version versions} and {@link VersionConstraint constraints} are cached, so the same strings
+ * are never parsed twice. For each artifact directory, a sorted index of versions is kept together with
+ * modification time of the directory. When the modification time changes, the index is updated using
+ * only added and removed names. Directories modified shortly before they were listed are listed again,
+ * because they may be modified again without changing their modification time.</p>
+ */
+class LocalVersionIndex {
+
+    /**
+     * Directories modified less than this before listing may be modified again without changing their
+     * modification time.
+     */
+    private static final long TIMESTAMP_GRANULARITY = 2000L;
+
+    private static final int MAX_PARSED = 10000;
+    private static final int MAX_DIRECTORIES = 5000;
+
+    private final GenericVersionScheme scheme = new GenericVersionScheme();
+
+    private final ConcurrentMap<String, Version> versions = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, VersionConstraint> constraints = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Entry> directories = new ConcurrentHashMap<>();
+
+    /**
+     * Parses (or gets cached) version constraint - fixed version or version range.
+     *
+     * @param constraint
+     * @return
+     * @throws InvalidVersionSpecificationException
+     */
+    VersionConstraint constraint(String constraint) throws InvalidVersionSpecificationException {
+        VersionConstraint vc = constraints.get(constraint);
+        if (vc == null) {
+            vc = scheme.parseVersionConstraint(constraint);
+            if (constraints.size() >= MAX_PARSED) {
+                constraints.clear();
+            }
+            constraints.put(constraint, vc);
+        }
+        return vc;
+    }
+
+    /**
+     * Parses (or gets cached) version.
+     *
+     * @param version
+     * @return
+     * @throws InvalidVersionSpecificationException
+     */
+    Version version(String version) throws InvalidVersionSpecificationException {
+        Version v = versions.get(version);
+        if (v == null) {
+            v = scheme.parseVersion(version);
+            if (versions.size() >= MAX_PARSED) {
+                versions.clear();
+            }
+            versions.put(version, v);
+        }
+        return v;
+    }
+
+    /**
+     * Finds highest version within given range among names of version directories.
+     *
+     * @param key identifies the directory (like the absolute path)
+     * @param stamp modification time of the directory
+     * @param lister lists names of the directory (may return {@code null})
+     * @param range
+     * @return highest matching version or {@code null}
+     * @throws InvalidVersionSpecificationException
+     */
+    Version highest(String key, long stamp, Supplier<String[]> lister, VersionConstraint range)
+            throws InvalidVersionSpecificationException {
+        Entry entry = directories.get(key);
+        if (entry == null || entry.stamp != stamp || stamp > entry.listed - TIMESTAMP_GRANULARITY) {
+            long listed = System.currentTimeMillis();
+            String[] names = lister.get();
+            entry = update(entry, stamp, listed, names == null ? new String[0] : names);
+            if (directories.size() >= MAX_DIRECTORIES) {
+                directories.clear();
+            }
+            directories.put(key, entry);
+        }
+        for (Version version : entry.sorted.descendingKeySet()) {
+            if (range.containsVersion(version)) {
+                return version;
+            }
+        }
+        return null;
+    }
+
+    void clear() {
+        versions.clear();
+        constraints.clear();
+        directories.clear();
+    }
+
+    /**
+     * Creates new entry, reusing versions of previous one for names that didn't change.
+     *
+     * @param previous
+     * @param stamp
+     * @param listed time before the names were listed
+     * @param names
+     * @return
+     * @throws InvalidVersionSpecificationException
+     */
+    private Entry update(Entry previous, long stamp, long listed, String[] names) throws InvalidVersionSpecificationException {
+        TreeMap<Version, String> sorted;
+        Map<String, Version> byName;
+        if (previous == null) {
+            sorted = new TreeMap<>();
+            byName = new HashMap<>();
+        } else {
+            sorted = new TreeMap<>(previous.sorted);
+            byName = new HashMap<>(previous.byName);
+            Set<String> current = new HashSet<>(Arrays.asList(names));
+            boolean removed = false;
+            for (Map.Entry<String, Version> e : previous.byName.entrySet()) {
+                if (!current.contains(e.getKey())) {
+                    byName.remove(e.getKey());
+                    removed |= sorted.remove(e.getValue(), e.getKey());
+                }
+            }
+            if (removed) {
+                // different names may be equal versions (like "1.0" and "1.0.0")
+                for (Map.Entry<String, Version> e : byName.entrySet()) {
+                    sorted.putIfAbsent(e.getValue(), e.getKey());
+                }
+            }
+        }
+        for (String name : names) {
+            if (!byName.containsKey(name)) {
+                Version v = version(name);
+                byName.put(name, v);
+                sorted.putIfAbsent(v, name);
+            }
+        }
+        return new Entry(stamp, listed, sorted, byName);
+    }
+
+    private static class Entry {
+        final long stamp;
+        final long listed;
+        final TreeMap<Version, String> sorted;
+        final Map<String, Version> byName;
+
+        Entry(long stamp, long listed, TreeMap<Version, String> sorted, Map<String, Version> byName) {
+            this.stamp = stamp;
+            this.listed = listed;
+            this.sorted = sorted;
+            this.byName = byName;
+        }
+    }
+
+}
@@ -0,0 +1,232 @@
+/*
+ * Copyright 2023 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.url.mvn.internal;
+
+import java.net.MalformedURLException;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.eclipse.aether.artifact.Artifact;
+import org.eclipse.aether.artifact.DefaultArtifact;
+import org.ops4j.pax.url.mvn.internal.config.MavenRepositoryURL;
+
+/**
+ * <p>Immutable result of parsing the path of {@code mvn:} URL (without the {@code mvn:} scheme). The syntax and
+ * the defaults are the same as in {@link Parser}.</p>
+ *
+ * <p>The path is scanned once, without regular expressions or intermediate arrays, and the results are interned
+ * by the parsed path - parsing the same path again returns the same instance (together with the same
+ * {@link Artifact}), so repeated resolution of the same URLs (e.g., during feature resolution) doesn't
+ * produce garbage.</p>
+ */
+public final class MavenCoordinates {
+
+    private static final int MAX_CACHED = 4096;
+
+    private static final String TYPE_JAR = "jar";
+
+    private static final ConcurrentMap<String, MavenCoordinates> CACHE = new ConcurrentHashMap<>();
+
+    private final String groupId;
+    private final String artifactId;
+    private final String version;
+    private final String type;
+    private final String classifier;
+    private final MavenRepositoryURL repositoryURL;
+    private final Artifact artifact;
+
+    private MavenCoordinates(String groupId, String artifactId, String version, String type, String classifier,
+            MavenRepositoryURL repositoryURL) {
+        this.groupId = groupId;
+        this.artifactId = artifactId;
+        this.version = version;
+        this.type = type;
+        this.classifier = classifier;
+        this.repositoryURL = repositoryURL;
+        this.artifact = new DefaultArtifact(groupId, artifactId, classifier, type, version);
+    }
+
+    /**
+     * Parses the path of {@code mvn:} URL, returning cached instance if the same path was already parsed.
+     *
+     * @param path the path part of the url (without starting mvn:)
+     * @return
+     * @throws MalformedURLException if provided path does not comply to expected syntax or an malformed repository URL
+     */
+    public static MavenCoordinates parse(String path) throws MalformedURLException {
+        if (path == null) {
+            throw new MalformedURLException("Path cannot be null. Syntax " + Parser.SYNTAX);
+        }
+        MavenCoordinates coordinates = CACHE.get(path);
+        if (coordinates != null) {
+            return coordinates;
+        }
+        coordinates = doParse(path);
+        if (CACHE.size() >= MAX_CACHED) {
+            CACHE.clear();
+        }
+        MavenCoordinates previous = CACHE.putIfAbsent(path, coordinates);
+        return previous == null ? coordinates : previous;
+    }
+
+    private static MavenCoordinates doParse(String path) throws MalformedURLException {
+        int length = path.length();
+        if (length > 0 && (path.charAt(0) == '!' || path.charAt(length - 1) == '!')) {
+            throw new MalformedURLException("Path cannot start or end with !. Syntax " + Parser.SYNTAX);
+        }
+        // we have to include all ! up to the last one, because ZIP/JAR archives are accessed with "!/" path prefix
+        int separator = path.lastIndexOf('!');
+        int start = separator + 1;
+        // trailing empty segments are ignored
+        int end = length;
+        while (end > start && path.charAt(end - 1) == '/') {
+            end--;
+        }
+
+        // start/end indexes of up to 5 segments: groupId/artifactId/version/type/classifier
+        int segments = 0;
+        int s0 = 0, e0 = 0, s1 = 0, e1 = 0, s2 = 0, e2 = 0, s3 = 0, e3 = 0, s4 = 0, e4 = 0;
+        int from = start;
+        while (segments < 5 && from <= end) {
+            int to = path.indexOf('/', from);
+            if (to < 0 || to > end) {
+                to = end;
+            }
+            switch (segments) {
+                case 0: s0 = from; e0 = to; break;
+                case 1: s1 = from; e1 = to; break;
+                case 2: s2 = from; e2 = to; break;
+                case 3: s3 = from; e3 = to; break;
+                default: s4 = from; e4 = to; break;
+            }
+            segments++;
+            from = to + 1;
+        }
+
+        if (segments < 2) {
+            throw new MalformedURLException("Invalid path. Syntax " + Parser.SYNTAX);
+        }
+        if (isBlank(path, s0, e0)) {
+            throw new MalformedURLException("Invalid groupId. Syntax " + Parser.SYNTAX);
+        }
+        if (isBlank(path, s1, e1)) {
+            throw new MalformedURLException("Invalid artifactId. Syntax " + Parser.SYNTAX);
+        }
+        String groupId = path.substring(s0, e0);
+        String artifactId = path.substring(s1, e1);
+        String version = segments >= 3 && !isBlank(path, s2, e2) ? path.substring(s2, e2) : Parser.VERSION_LATEST;
+        String type = TYPE_JAR;
+        if (segments >= 4 && !isBlank(path, s3, e3)) {
+            type = e3 - s3 == TYPE_JAR.length() && path.startsWith(TYPE_JAR, s3) ? TYPE_JAR : path.substring(s3, e3);
+        }
+        String classifier = segments >= 5 && !isBlank(path, s4, e4) ? path.substring(s4, e4) : null;
+
+        MavenRepositoryURL repositoryURL = separator < 0 ? null
+                : new MavenRepositoryURL(path.substring(0, separator) + "@snapshots");
+
+        return new MavenCoordinates(groupId, artifactId, version, type, classifier, repositoryURL);
+    }
+
+    /**
+     * Same check as {@code s.substring(from, to).trim().isEmpty()}
+     */
+    private static boolean isBlank(String s, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (s.charAt(i) > ' ') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public String getGroupId() {
+        return groupId;
+    }
+
+    public String getArtifactId() {
+        return artifactId;
+    }
+
+    /**
+     * Artifact version - {@link Parser#VERSION_LATEST} if not specified
+     * @return
+     */
+    public String getVersion() {
+        return version;
+    }
+
+    /**
+     * Artifact type - {@code jar} if not specified
+     * @return
+     */
+    public String getType() {
+        return type;
+    }
+
+    /**
+     * Artifact classifier - {@code null} if not specified
+     * @return
+     */
+    public String getClassifier() {
+        return classifier;
+    }
+
+    /**
+     * Repository URL specified before {@code !} - {@code null} if not specified
+     * @return
+     */
+    public MavenRepositoryURL getRepositoryURL() {
+        return repositoryURL;
+    }
+
+    /**
+     * Returns (always the same) {@link Artifact} for these coordinates
+     * @return
+     */
+    public Artifact getArtifact() {
+        return artifact;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        MavenCoordinates that = (MavenCoordinates) o;
+        return groupId.equals(that.groupId)
+                && artifactId.equals(that.artifactId)
+                && version.equals(that.version)
+                && type.equals(that.type)
+                && Objects.equals(classifier, that.classifier)
+                && Objects.equals(repositoryURL == null ? null : repositoryURL.toString(),
+                        that.repositoryURL == null ? null : that.repositoryURL.toString());
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(groupId, artifactId, version, type, classifier);
+    }
+
+    @Override
+    public String toString() {
+        return repositoryURL == null ? artifact.toString() : repositoryURL + "!" + artifact;
+    }
+
+}
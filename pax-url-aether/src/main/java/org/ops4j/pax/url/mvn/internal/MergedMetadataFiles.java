@@ -0,0 +1,113 @@
+/*
+ * Copyright 2023 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.url.mvn.internal;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>Private temporary directory with merged metadata files written by {@link MetadataMerger}. The directory is
+ * created (by {@link Files#createTempDirectory}, so it's accessible only by current user) when first file is
+ * written and deleted by {@link #close()}.</p>
+ *
+ * <p>Number of files is bounded - least recently written or reused files are deleted. Such files may still be
+ * referenced by {@link MetadataCache}, which checks whether cached files exist.</p>
+ */
+class MergedMetadataFiles implements AutoCloseable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(MergedMetadataFiles.class);
+
+    private final int maxFiles;
+
+    private Path directory;
+    private boolean closed;
+    private final Map<File, Boolean> files = new LinkedHashMap<File, Boolean>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<File, Boolean> eldest) {
+            if (size() > maxFiles) {
+                delete(eldest.getKey().toPath());
+                return true;
+            }
+            return false;
+        }
+    };
+
+    /**
+     * Creates the directory keeping up to {@code maxFiles} files.
+     *
+     * @param maxFiles
+     */
+    MergedMetadataFiles(int maxFiles) {
+        this.maxFiles = Math.max(1, maxFiles);
+    }
+
+    /**
+     * Writes merged metadata to a file in the directory.
+     *
+     * @param merger
+     * @return
+     * @throws IOException
+     */
+    synchronized File write(MetadataMerger merger) throws IOException {
+        if (closed) {
+            throw new IOException("Maven resolver is closed");
+        }
+        if (directory == null) {
+            directory = Files.createTempDirectory("pax-url-aether-metadata-");
+        }
+        File file = merger.toFile(directory.toFile());
+        files.put(file, Boolean.TRUE);
+        return file;
+    }
+
+    /**
+     * Deletes all the files and the directory.
+     */
+    @Override
+    public synchronized void close() {
+        closed = true;
+        files.clear();
+        if (directory == null) {
+            return;
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+            for (Path file : stream) {
+                delete(file);
+            }
+        } catch (IOException e) {
+            LOG.debug("Can't list directory {}: {}", directory, e.getMessage());
+        }
+        delete(directory);
+        directory = null;
+    }
+
+    private static void delete(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            LOG.debug("Can't delete {}: {}", path, e.getMessage());
+        }
+    }
+
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright 2023 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.url.mvn.internal;
+
+import java.io.File;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * <p>Bounded, in-memory cache of merged {@code maven-metadata.xml} files.</p>
+ *
+ * <p>Entry is valid until it expires (according to update policy of remote repositories) and as long as
+ * none of the per-repository metadata files that were merged changed its modification time (or appeared or
+ * disappeared). Entries are evicted in LRU order when the cache is full.</p>
+ */
+class MetadataCache {
+
+    private final int maxSize;
+    private final Map<String, Entry> entries;
+
+    /**
+     * Creates a cache for up to {@code maxSize} metadata files. When {@code maxSize <= 0}, nothing is cached.
+     *
+     * @param maxSize
+     */
+    MetadataCache(int maxSize) {
+        this.maxSize = maxSize;
+        this.entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > MetadataCache.this.maxSize;
+            }
+        };
+    }
+
+    /**
+     * Returns merged metadata file if it's still valid.
+     *
+     * @param key
+     * @return
+     */
+    File get(String key) {
+        if (maxSize <= 0) {
+            return null;
+        }
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(key);
+        }
+        if (entry == null) {
+            return null;
+        }
+        if (!entry.isValid()) {
+            synchronized (entries) {
+                entries.remove(key, entry);
+            }
+            return null;
+        }
+        return entry.file;
+    }
+
+    /**
+     * Caches merged metadata file until given time (in ms since epoch).
+     *
+     * @param key
+     * @param file merged metadata
+     * @param sources metadata files (existing or not) that were used to create merged metadata
+     * @param expires
+     */
+    void put(String key, File file, Collection<File> sources, long expires) {
+        if (maxSize <= 0 || file == null || expires <= System.currentTimeMillis()) {
+            return;
+        }
+        File[] files = sources.toArray(new File[0]);
+        long[] lastModified = new long[files.length];
+        for (int i = 0; i < files.length; i++) {
+            lastModified[i] = files[i].lastModified();
+        }
+        synchronized (entries) {
+            entries.put(key, new Entry(file, files, lastModified, expires));
+        }
+    }
+
+    int getMaxSize() {
+        return maxSize;
+    }
+
+    void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    private static class Entry {
+        final File file;
+        final File[] sources;
+        final long[] lastModified;
+        final long expires;
+
+        Entry(File file, File[] sources, long[] lastModified, long expires) {
+            this.file = file;
+            this.sources = sources;
+            this.lastModified = lastModified;
+            this.expires = expires;
+        }
+
+        boolean isValid() {
+            if (expires <= System.currentTimeMillis() || !file.isFile()) {
+                return false;
+            }
+            for (int i = 0; i < sources.length; i++) {
+                // lastModified() is 0 for files that don't exist
+                if (sources[i].lastModified() != lastModified[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+}
@@ -0,0 +1,331 @@
+/*
+ * Copyright 2023 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.url.mvn.internal;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.maven.artifact.repository.metadata.Metadata;
+import org.apache.maven.artifact.repository.metadata.SnapshotVersion;
+import org.apache.maven.artifact.repository.metadata.Versioning;
+import org.apache.maven.artifact.repository.metadata.io.xpp3.MetadataXpp3Writer;
+import org.codehaus.plexus.util.xml.pull.MXParser;
+import org.codehaus.plexus.util.xml.pull.XmlPullParser;
+import org.codehaus.plexus.util.xml.pull.XmlPullParserException;
+import org.eclipse.aether.util.version.GenericVersionScheme;
+import org.eclipse.aether.version.InvalidVersionSpecificationException;
+import org.eclipse.aether.version.Version;
+
+/**
+ * <p>Merges {@code maven-metadata.xml} files from many repositories into single metadata.</p>
+ *
+ * <p>Only {@code <versioning>} section is needed, so the files are processed by pull parser without building
+ * full object model. Versions are deduplicated using a set and each version is parsed only once.</p>
+ *
+ * <p>Merged metadata is available as bytes/stream or as a file named after the content, so merging the same
+ * metadata again doesn't create new files.</p>
+ */
+class MetadataMerger {
+
+    private static final GenericVersionScheme VERSION_SCHEME = new GenericVersionScheme();
+
+    private final String groupId;
+    private final String artifactId;
+
+    private String lastUpdated;
+    private String latest;
+    private String release;
+    private final Set<String> versions = new LinkedHashSet<>();
+    private final List<SnapshotVersion> snapshotVersions = new ArrayList<>();
+    private final Map<String, Version> parsedVersions = new HashMap<>();
+    private boolean merged;
+
+    MetadataMerger(String groupId, String artifactId) {
+        this.groupId = groupId;
+        this.artifactId = artifactId;
+    }
+
+    String getGroupId() {
+        return groupId;
+    }
+
+    String getArtifactId() {
+        return artifactId;
+    }
+
+    /**
+     * Merges single {@code maven-metadata.xml} file.
+     *
+     * @param file
+     * @throws IOException
+     */
+    void merge(File file) throws IOException {
+        try (InputStream is = Files.newInputStream(file.toPath())) {
+            merge(is);
+        }
+    }
+
+    /**
+     * Merges single {@code maven-metadata.xml} content.
+     *
+     * @param is
+     * @throws IOException
+     */
+    void merge(InputStream is) throws IOException {
+        try {
+            XmlPullParser parser = new MXParser();
+            parser.setInput(is, null);
+            Deque<String> path = new ArrayDeque<>();
+            SnapshotVersion snapshotVersion = null;
+            String text = null;
+            int event;
+            while ((event = parser.next()) != XmlPullParser.END_DOCUMENT) {
+                if (event == XmlPullParser.START_TAG) {
+                    path.push(parser.getName());
+                    text = null;
+                    if (path.size() == 4 && "snapshotVersion".equals(parser.getName()) && inVersioning(path)) {
+                        snapshotVersion = new SnapshotVersion();
+                        snapshotVersion.setClassifier("");
+                        snapshotVersion.setExtension("");
+                    }
+                } else if (event == XmlPullParser.TEXT) {
+                    text = parser.getText();
+                } else if (event == XmlPullParser.END_TAG) {
+                    String name = path.pop();
+                    String value = text == null ? null : text.trim();
+                    text = null;
+                    if (path.size() == 2 && inVersioning(path)) {
+                        // metadata/versioning/*
+                        switch (name) {
+                            case "lastUpdated":
+                                lastUpdated = latestTimestamp(lastUpdated, value);
+                                break;
+                            case "latest":
+                                latest = latestVersion(latest, value);
+                                break;
+                            case "release":
+                                release = latestVersion(release, value);
+                                break;
+                            default:
+                                break;
+                        }
+                    } else if (path.size() == 3 && "version".equals(name) && "versions".equals(path.peek())
+                            && inVersioning(path) && value != null && !value.isEmpty()) {
+                        versions.add(value);
+                    } else if (path.size() == 3 && "snapshotVersion".equals(name) && snapshotVersion != null) {
+                        snapshotVersions.add(snapshotVersion);
+                        snapshotVersion = null;
+                    } else if (path.size() == 4 && snapshotVersion != null && value != null) {
+                        switch (name) {
+                            case "classifier":
+                                snapshotVersion.setClassifier(value);
+                                break;
+                            case "extension":
+                                snapshotVersion.setExtension(value);
+                                break;
+                            case "value":
+                                snapshotVersion.setVersion(value);
+                                break;
+                            case "updated":
+                                snapshotVersion.setUpdated(value);
+                                break;
+                            default:
+                                break;
+                        }
+                    }
+                }
+            }
+            merged = true;
+        } catch (XmlPullParserException e) {
+            throw new IOException("Invalid metadata: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Merges metadata already merged by another merger (for example, in another thread).
+     *
+     * @param other
+     */
+    void merge(MetadataMerger other) {
+        if (!other.merged) {
+            return;
+        }
+        lastUpdated = latestTimestamp(lastUpdated, other.lastUpdated);
+        latest = latestVersion(latest, other.latest);
+        release = latestVersion(release, other.release);
+        versions.addAll(other.versions);
+        snapshotVersions.addAll(other.snapshotVersions);
+        merged = true;
+    }
+
+    /**
+     * Whether at least one metadata was merged.
+     *
+     * @return
+     */
+    boolean isMerged() {
+        return merged;
+    }
+
+    /**
+     * Serializes merged metadata. Versions are sorted.
+     *
+     * @return
+     * @throws IOException
+     */
+    byte[] toByteArray() throws IOException {
+        Metadata metadata = new Metadata();
+        metadata.setModelVersion("1.1.0");
+        metadata.setGroupId(groupId);
+        metadata.setArtifactId(artifactId);
+        Versioning versioning = new Versioning();
+        versioning.setLastUpdated(lastUpdated);
+        versioning.setLatest(latest);
+        versioning.setRelease(release);
+        List<String> sortedVersions = new ArrayList<>(versions);
+        sortedVersions.sort(this::compareVersions);
+        versioning.setVersions(sortedVersions);
+        List<SnapshotVersion> sortedSnapshotVersions = new ArrayList<>(snapshotVersions);
+        sortedSnapshotVersions.sort(Comparator.comparing(SnapshotVersion::getVersion, this::compareVersions)
+                .thenComparing(SnapshotVersion::getExtension)
+                .thenComparing(SnapshotVersion::getClassifier));
+        versioning.setSnapshotVersions(sortedSnapshotVersions);
+        metadata.setVersioning(versioning);
+
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        new MetadataXpp3Writer().write(baos, metadata);
+        return baos.toByteArray();
+    }
+
+    /**
+     * Merged metadata as in-memory stream.
+     *
+     * @return
+     * @throws IOException
+     */
+    InputStream openStream() throws IOException {
+        return new ByteArrayInputStream(toByteArray());
+    }
+
+    /**
+     * Writes merged metadata to a file in given directory. The name of the file is derived from the content,
+     * so existing file is returned when the same metadata was merged before (and the file still has this
+     * content).
+     *
+     * @param directory
+     * @return
+     * @throws IOException
+     */
+    File toFile(File directory) throws IOException {
+        byte[] content = toByteArray();
+        String name;
+        try {
+            StringBuilder sb = new StringBuilder();
+            for (byte b : MessageDigest.getInstance("SHA-1").digest(content)) {
+                sb.append(String.format("%02x", b));
+            }
+            name = "maven-metadata-" + sb + ".xml";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+        File file = new File(directory, name);
+        if (file.isFile() && file.length() == content.length
+                && Arrays.equals(Files.readAllBytes(file.toPath()), content)) {
+            return file;
+        }
+        Files.createDirectories(directory.toPath());
+        Path tmp = Files.createTempFile(directory.toPath(), "maven-metadata-", ".tmp");
+        try {
+            Files.write(tmp, content);
+            try {
+                Files.move(tmp, file.toPath(), StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(tmp, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+        return file;
+    }
+
+    private static boolean inVersioning(Deque<String> path) {
+        // path is a stack with the root element at the end, "versioning" has to be its direct child
+        Object[] elements = path.toArray();
+        return "versioning".equals(elements[elements.length - 2]);
+    }
+
+    private static String latestTimestamp(String t1, String t2) {
+        if (t1 == null) {
+            return t2;
+        } else if (t2 == null) {
+            return t1;
+        } else {
+            return t1.compareTo(t2) < 0 ? t2 : t1;
+        }
+    }
+
+    private String latestVersion(String v1, String v2) {
+        if (v1 == null) {
+            return v2;
+        } else if (v2 == null) {
+            return v1;
+        } else {
+            return compareVersions(v1, v2) < 0 ? v2 : v1;
+        }
+    }
+
+    private int compareVersions(String v1, String v2) {
+        Version vv1 = parse(v1);
+        Version vv2 = parse(v2);
+        if (vv1 == null || vv2 == null) {
+            return String.valueOf(v1).compareTo(String.valueOf(v2));
+        }
+        return vv1.compareTo(vv2);
+    }
+
+    private Version parse(String version) {
+        if (version == null) {
+            return null;
+        }
+        return parsedVersions.computeIfAbsent(version, v -> {
+            try {
+                return VERSION_SCHEME.parseVersion(v);
+            } catch (InvalidVersionSpecificationException e) {
+                return null;
+            }
+        });
+    }
+
+}
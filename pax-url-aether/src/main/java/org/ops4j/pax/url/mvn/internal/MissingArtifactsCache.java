@@ -0,0 +1,140 @@
+/*
+ * Copyright 2023 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.url.mvn.internal;
+
+import java.io.File;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * <p>Remembers artifacts that were not found in <em>default</em> repositories, so such repositories
+ * can be skipped without involving Maven Resolver.</p>
+ *
+ * <p>When the miss is recorded, the nearest existing directory on the path to the artifact is remembered
+ * together with its modification time. Any change to this directory (like creation of new version directory
+ * or new file in existing version directory) invalidates the entry. Entries also expire after configured
+ * time, to handle changes that don't affect directory modification time. Because modification times have
+ * limited granularity, misses in directories modified just before the miss are not remembered.</p>
+ */
+class MissingArtifactsCache {
+
+    private static final int MAX_ENTRIES = 10000;
+
+    /**
+     * Directories modified less than this before the miss may be modified again without changing their
+     * modification time.
+     */
+    private static final long TIMESTAMP_GRANULARITY = 2000L;
+
+    private final long ttl;
+    private final Map<String, Entry> entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            return size() > MAX_ENTRIES;
+        }
+    };
+
+    /**
+     * Creates a cache with entries expiring after {@code ttl} milliseconds. When {@code ttl <= 0},
+     * nothing is cached.
+     *
+     * @param ttl
+     */
+    MissingArtifactsCache(long ttl) {
+        this.ttl = ttl;
+    }
+
+    /**
+     * Checks whether the artifact is known to be missing from given repository.
+     *
+     * @param basedir base directory of default repository
+     * @param artifact artifact coordinates
+     * @return
+     */
+    boolean isMissing(File basedir, String artifact) {
+        if (ttl <= 0) {
+            return false;
+        }
+        String key = basedir.getPath() + "|" + artifact;
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(key);
+        }
+        if (entry == null) {
+            return false;
+        }
+        if (entry.expires <= System.currentTimeMillis() || entry.directory.lastModified() != entry.lastModified) {
+            synchronized (entries) {
+                entries.remove(key, entry);
+            }
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * Records a miss of an artifact in given repository.
+     *
+     * @param basedir base directory of default repository
+     * @param artifact artifact coordinates
+     * @param artifactFile expected location of the artifact file within the repository
+     */
+    void missing(File basedir, String artifact, File artifactFile) {
+        if (ttl <= 0) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        File directory = artifactFile.getParentFile();
+        while (directory != null && !directory.isDirectory()) {
+            directory = directory.getParentFile();
+        }
+        if (directory == null) {
+            return;
+        }
+        long lastModified = directory.lastModified();
+        if (lastModified > now - TIMESTAMP_GRANULARITY) {
+            // the artifact may be added in the same tick without changing modification time
+            return;
+        }
+        Entry entry = new Entry(directory, lastModified, now + ttl);
+        synchronized (entries) {
+            entries.put(basedir.getPath() + "|" + artifact, entry);
+        }
+    }
+
+    long getTtl() {
+        return ttl;
+    }
+
+    void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    private static class Entry {
+        final File directory;
+        final long lastModified;
+        final long expires;
+
+        Entry(File directory, long lastModified, long expires) {
+            this.directory = directory;
+            this.lastModified = lastModified;
+            this.expires = expires;
+        }
+    }
+
+}
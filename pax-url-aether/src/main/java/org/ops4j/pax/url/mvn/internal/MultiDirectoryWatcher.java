@@ -0,0 +1,161 @@
+/*
+ * Copyright 2023 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.url.mvn.internal;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>Watches {@code @multi} directories using {@link WatchService}. Each change (a child created, deleted or
+ * renamed) increases the {@link #getGeneration() generation} and calls the listener from watcher's thread, so
+ * {@link RepositoryTopology} can be rebuilt before next resolution instead of during it.</p>
+ *
+ * <p>The thread is started when first directory is watched. Directories which can't be watched (not existing
+ * yet, or when the filesystem doesn't support watching) are reported by {@link #watch(Collection)}, so the
+ * caller can fall back to checking modification times.</p>
+ */
+class MultiDirectoryWatcher implements AutoCloseable {
+
+    private static final Logger LOG = LoggerFactory.getLogger(MultiDirectoryWatcher.class);
+
+    private final Runnable listener;
+
+    private final AtomicLong generation = new AtomicLong();
+    private final Map<File, WatchKey> keys = new ConcurrentHashMap<>();
+
+    private WatchService watchService;
+    private Thread thread;
+    private volatile boolean closed;
+
+    /**
+     * Creates the watcher.
+     *
+     * @param listener called from watcher's thread after change of any watched directory
+     */
+    MultiDirectoryWatcher(Runnable listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Current generation - changed after every detected change of watched directories.
+     *
+     * @return
+     */
+    long getGeneration() {
+        return generation.get();
+    }
+
+    /**
+     * Starts watching given directories (if not watched already). Changes that happen after this method
+     * returns {@code true} are guaranteed to change the {@link #getGeneration() generation}.
+     *
+     * @param directories
+     * @return {@code true} if all the directories are watched
+     */
+    synchronized boolean watch(Collection<File> directories) {
+        if (closed) {
+            return false;
+        }
+        boolean all = true;
+        for (File directory : directories) {
+            WatchKey key = keys.get(directory);
+            if (key != null && key.isValid()) {
+                continue;
+            }
+            if (!directory.isDirectory()) {
+                all = false;
+                continue;
+            }
+            try {
+                if (watchService == null) {
+                    watchService = FileSystems.getDefault().newWatchService();
+                    thread = new Thread(this::run, "pax-url-aether-multi-watcher");
+                    thread.setDaemon(true);
+                    thread.start();
+                }
+                keys.put(directory, directory.toPath().register(watchService,
+                        StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_DELETE));
+                LOG.debug("Watching @multi directory {}", directory);
+            } catch (IOException | UnsupportedOperationException e) {
+                LOG.debug("Can't watch @multi directory {}: {}", directory, e.getMessage());
+                all = false;
+            }
+        }
+        return all;
+    }
+
+    private void run() {
+        WatchService ws;
+        synchronized (this) {
+            ws = watchService;
+        }
+        try {
+            while (!closed) {
+                WatchKey key = ws.take();
+                do {
+                    // the events themselves don't matter - the whole topology is rebuilt anyway
+                    key.pollEvents();
+                    if (!key.reset()) {
+                        // directory is no longer accessible
+                        keys.values().remove(key);
+                    }
+                    key = ws.poll();
+                } while (key != null);
+                generation.incrementAndGet();
+                if (closed) {
+                    break;
+                }
+                try {
+                    listener.run();
+                } catch (RuntimeException e) {
+                    LOG.warn("Error processing change of @multi directory: {}", e.getMessage(), e);
+                }
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // closed
+        }
+    }
+
+    @Override
+    public void close() {
+        WatchService ws;
+        synchronized (this) {
+            closed = true;
+            ws = watchService;
+            watchService = null;
+            keys.clear();
+        }
+        if (ws != null) {
+            try {
+                ws.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+}
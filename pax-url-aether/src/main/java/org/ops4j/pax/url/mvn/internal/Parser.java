@@ -45,25 +45,12 @@ public class Parser
     /**
      * Syntax for the url; to be shown on exception messages.
      */
-    private static final String SYNTAX = "mvn:[repository_url!]groupId/artifactId[/[version[/type[/classifier]]]";
-
-    /**
-     * Separator between repository and artifact definition.
-     */
-    private static final String REPOSITORY_SEPARATOR = "!";
-    /**
-     * Artifact definition segments separator.
-     */
-    private static final String ARTIFACT_SEPARATOR = "/";
+    static final String SYNTAX = "mvn:[repository_url!]groupId/artifactId[/[version[/type[/classifier]]]";
 
     /**
      * Snapshot version
      */
     private static final String VERSION_SNAPSHOT = "SNAPSHOT";
-    /**
-     * Default type if not present in the url.
-     */
-    private static final String TYPE_JAR = "jar";
 
     /**
      * Final artifact path separator.
@@ -133,75 +120,14 @@ public class Parser
     public Parser( final String path )
         throws MalformedURLException
     {
-        if( path == null )
-        {
-            throw new MalformedURLException( "Path cannot be null. Syntax " + SYNTAX );
-        }
-        if( path.startsWith( REPOSITORY_SEPARATOR ) || path.endsWith( REPOSITORY_SEPARATOR ) )
-        {
-            throw new MalformedURLException(
-                "Path cannot start or end with " + REPOSITORY_SEPARATOR + ". Syntax " + SYNTAX
-            );
-        }
-        if( path.contains( REPOSITORY_SEPARATOR ) )
-        {
-            int pos = path.lastIndexOf( REPOSITORY_SEPARATOR );
-            parseArtifactPart( path.substring( pos + 1 ) );
-            // we have to include all ! up to the last one, because ZIP/JAR archives are accessed with "!/" path prefix
-            m_repositoryURL = new MavenRepositoryURL( path.substring( 0, pos ) + "@snapshots" );
-        }
-        else
-        {
-            parseArtifactPart( path );
-        }
-    }
-
-    /**
-     * Parses the artifact part of the url ( without the repository).
-     *
-     * @param part url part without protocol and repository.
-     *
-     * @throws MalformedURLException if provided path does not comply to syntax.
-     */
-    private void parseArtifactPart( final String part )
-        throws MalformedURLException
-    {
-        String[] segments = part.split( ARTIFACT_SEPARATOR );
-        if( segments.length < 2 )
-        {
-            throw new MalformedURLException( "Invalid path. Syntax " + SYNTAX );
-        }
-        // we must have a valid group
-        m_group = segments[ 0 ];
-        if(m_group.trim().isEmpty())
-        {
-            throw new MalformedURLException( "Invalid groupId. Syntax " + SYNTAX );
-        }
-        // valid artifact
-        m_artifact = segments[ 1 ];
-        if(m_artifact.trim().isEmpty())
-        {
-            throw new MalformedURLException( "Invalid artifactId. Syntax " + SYNTAX );
-        }
-        // version is optional but we have a default value 
-        m_version = VERSION_LATEST;
-        if( segments.length >= 3 && !segments[2].trim().isEmpty())
-        {
-            m_version = segments[ 2 ];
-        }
-        // type is optional but we have a default value
-        m_type = TYPE_JAR;
-        if( segments.length >= 4 && !segments[3].trim().isEmpty())
-        {
-            m_type = segments[ 3 ];
-        }
-        // classifier is optional (if not pressent or empty we will have a null classsifier
-        m_fullClassifier = "";
-        if( segments.length >= 5 && !segments[4].trim().isEmpty())
-        {
-            m_classifier = segments[ 4 ];
-            m_fullClassifier = CLASSIFIER_SEPARATOR + m_classifier;
-        }
+        MavenCoordinates coordinates = MavenCoordinates.parse( path );
+        m_repositoryURL = coordinates.getRepositoryURL();
+        m_group = coordinates.getGroupId();
+        m_artifact = coordinates.getArtifactId();
+        m_version = coordinates.getVersion();
+        m_type = coordinates.getType();
+        m_classifier = coordinates.getClassifier();
+        m_fullClassifier = m_classifier == null ? "" : CLASSIFIER_SEPARATOR + m_classifier;
     }
 
     /**
@@ -24,7 +24,6 @@ import org.eclipse.aether.RepositorySystemSession;
 import org.eclipse.aether.artifact.Artifact;
 import org.eclipse.aether.impl.RemoteRepositoryManager;
 import org.eclipse.aether.impl.UpdatePolicyAnalyzer;
-import org.eclipse.aether.internal.impl.TrackingFileManager;
 import org.eclipse.aether.metadata.Metadata;
 import org.eclipse.aether.repository.LocalArtifactRegistration;
 import org.eclipse.aether.repository.LocalArtifactRequest;
@@ -45,17 +44,17 @@ public class PaxLocalRepositoryManager implements LocalRepositoryManager {
 
     private final UpdatePolicyAnalyzer updatePolicyAnalyzer;
     private final RemoteRepositoryManager remoteRepositoryManager;
-    private final TrackingFileManager trackingFileManager;
+    private final TrackingFileCache trackingFileCache;
 
     private final String trackingFilename;
 
     public PaxLocalRepositoryManager(File basedir, LocalRepositoryManager delegate,
-            UpdatePolicyAnalyzer updatePolicyAnalyzer, RemoteRepositoryManager remoteRepositoryManager, TrackingFileManager trackingFileManager) {
+            UpdatePolicyAnalyzer updatePolicyAnalyzer, RemoteRepositoryManager remoteRepositoryManager, TrackingFileCache trackingFileCache) {
         this.delegate = delegate;
 
         this.updatePolicyAnalyzer = updatePolicyAnalyzer;
         this.remoteRepositoryManager = remoteRepositoryManager;
-        this.trackingFileManager = trackingFileManager;
+        this.trackingFileCache = trackingFileCache;
 
         this.trackingFilename = "_pax-url-aether-remote.repositories";
     }
@@ -94,7 +93,7 @@ public class PaxLocalRepositoryManager implements LocalRepositoryManager {
                 && (Boolean) session.getConfigProperties().get(PROPERTY_UPDATE_RELEASES)) {
             // check if we should force download
             File trackingFile = getTrackingFile(result.getFile());
-            Properties props = trackingFileManager.read(trackingFile);
+            Properties props = trackingFileCache.read(trackingFile);
             if (props != null) {
                 String localKey = result.getFile().getName() + ">";
                 if (props.get(localKey) == null) {
@@ -135,7 +134,7 @@ public class PaxLocalRepositoryManager implements LocalRepositoryManager {
 
             Map<String, String> updates = new HashMap<>();
             updates.put(artifactFile.getName() + ">" + repoId, "");
-            trackingFileManager.update(trackingFile, updates);
+            trackingFileCache.update(trackingFile, updates);
         }
     }
 
@@ -32,20 +32,22 @@ public class PaxLocalRepositoryManagerFactory implements LocalRepositoryManagerF
     private final LocalRepositoryManagerFactory delegate;
 
     // we need three additional "services" to be available in PaxLocalRepositoryManager
+    // (tracking files are accessed through a cache shared by all the managers)
     private final UpdatePolicyAnalyzer updatePolicyAnalyzer;
     private final RemoteRepositoryManager remoteRepositoryManager;
-    private final TrackingFileManager trackingFileManager;
+    private final TrackingFileCache trackingFileCache;
 
     public PaxLocalRepositoryManagerFactory(LocalPathComposer localPathComposer, TrackingFileManager trackingFileManager,
             LocalPathPrefixComposerFactory localPathPrefixComposerFactory,
-            UpdatePolicyAnalyzer updatePolicyAnalyzer, RemoteRepositoryManager remoteRepositoryManager) {
+            UpdatePolicyAnalyzer updatePolicyAnalyzer, RemoteRepositoryManager remoteRepositoryManager,
+            TrackingFileCache trackingFileCache) {
         // we can't extend org.eclipse.aether.internal.impl.EnhancedLocalRepositoryManager,
         // so we have to delegate
         delegate = new EnhancedLocalRepositoryManagerFactory(localPathComposer, trackingFileManager, localPathPrefixComposerFactory);
 
         this.updatePolicyAnalyzer = updatePolicyAnalyzer;
         this.remoteRepositoryManager = remoteRepositoryManager;
-        this.trackingFileManager = trackingFileManager;
+        this.trackingFileCache = trackingFileCache;
     }
 
     @Override
@@ -57,7 +59,7 @@ public class PaxLocalRepositoryManagerFactory implements LocalRepositoryManagerF
     public LocalRepositoryManager newInstance(RepositorySystemSession repositorySystemSession, LocalRepository localRepository) throws NoLocalRepositoryManagerException {
         LocalRepositoryManager delegate = this.delegate.newInstance(repositorySystemSession, localRepository);
         return new PaxLocalRepositoryManager(localRepository.getBasedir(), delegate,
-                updatePolicyAnalyzer, remoteRepositoryManager, trackingFileManager);
+                updatePolicyAnalyzer, remoteRepositoryManager, trackingFileCache);
     }
 
 }
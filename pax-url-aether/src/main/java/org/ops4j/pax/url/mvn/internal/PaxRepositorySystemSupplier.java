@@ -62,9 +62,10 @@ public class PaxRepositorySystemSupplier extends RepositorySystemSupplier {
     @Override
     protected LocalRepositoryProvider getLocalRepositoryProvider(LocalPathComposer localPathComposer, TrackingFileManager trackingFileManager, LocalPathPrefixComposerFactory localPathPrefixComposerFactory) {
         Set<LocalRepositoryManagerFactory> localRepositoryProviders = new HashSet<>(1);
+        TrackingFileCache trackingFileCache = new TrackingFileCache(trackingFileManager);
         localRepositoryProviders.add(new PaxLocalRepositoryManagerFactory(localPathComposer, trackingFileManager,
                 localPathPrefixComposerFactory,
-                updatePolicyAnalyzer, remoteRepositoryManager));
+                updatePolicyAnalyzer, remoteRepositoryManager, trackingFileCache));
 
         return new DefaultLocalRepositoryProvider(localRepositoryProviders);
     }
@@ -0,0 +1,259 @@
+/*
+ * Copyright 2023 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.url.mvn.internal;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.aether.artifact.Artifact;
+import org.eclipse.aether.repository.RemoteRepository;
+import org.eclipse.aether.transfer.AbstractTransferListener;
+import org.eclipse.aether.transfer.TransferEvent;
+import org.eclipse.aether.transfer.TransferResource;
+
+/**
+ * <p>{@link org.eclipse.aether.transfer.TransferListener} installed in all sessions of the resolver, which
+ * remembers hit rate and latency of artifact downloads from each remote repository, so remote repositories can
+ * be tried in order of expected benefit instead of configured order.</p>
+ *
+ * <p>Trying a repository costs the time until it responds (with the artifact or with "not found") and finds the
+ * artifact with its hit rate, so repositories are sorted by {@code hitRate / latency}. Latency doesn't include
+ * the download itself, so all the repositories are compared using the same measure regardless of their hit
+ * rate. Hit rate is taken for the <em>prefix</em> of the artifact (two first segments of
+ * {@code groupId/artifactId} path - like {@code org/ops4j}) when there are enough samples for the prefix,
+ * otherwise for the whole repository. Until there are enough samples for all the repositories, the configured
+ * order is kept. <em>Pinned</em> repositories are always tried first in configured order.</p>
+ *
+ * <p>Repositories tried later are used only when preferred ones miss, so their statistics would stop changing.
+ * To let them be promoted again, every {@link #EXPLORATION_INTERVAL}-th request keeps the configured order.</p>
+ */
+class RepositoryOrdering extends AbstractTransferListener {
+
+    /**
+     * Minimal number of downloads before the statistics are used.
+     */
+    private static final int MIN_SAMPLES = 5;
+
+    /**
+     * Weight of new latency in exponential moving average.
+     */
+    private static final double WEIGHT = 0.2d;
+
+    private static final int MAX_PREFIXES = 10000;
+
+    /**
+     * Every n-th request uses configured order, so statistics of all the repositories are updated.
+     */
+    private static final int EXPLORATION_INTERVAL = 10;
+
+    private final AtomicLong requests = new AtomicLong();
+
+    private final ConcurrentMap<String, Statistics> repositories = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Statistics> prefixes = new ConcurrentHashMap<>();
+
+    @Override
+    public void transferStarted(TransferEvent event) {
+        // repository responded with the artifact - the download itself doesn't count
+        if (isArtifactDownload(event)) {
+            repository(event).latency(latency(event));
+        }
+    }
+
+    @Override
+    public void transferSucceeded(TransferEvent event) {
+        if (isArtifactDownload(event)) {
+            record(event, true);
+        }
+    }
+
+    @Override
+    public void transferFailed(TransferEvent event) {
+        // not found or not available at all - both are misses
+        if (isArtifactDownload(event)) {
+            repository(event).latency(latency(event));
+            record(event, false);
+        }
+    }
+
+    private void record(TransferEvent event, boolean hit) {
+        repository(event).record(hit);
+
+        String prefix = prefix(event.getResource().getResourceName());
+        if (prefix != null) {
+            if (prefixes.size() >= MAX_PREFIXES) {
+                prefixes.clear();
+            }
+            prefixes.computeIfAbsent(event.getResource().getRepositoryId() + "|" + prefix, k -> new Statistics())
+                    .record(hit);
+        }
+    }
+
+    private Statistics repository(TransferEvent event) {
+        return repositories.computeIfAbsent(event.getResource().getRepositoryId(), k -> new Statistics());
+    }
+
+    private static long latency(TransferEvent event) {
+        return Math.max(0L, System.currentTimeMillis() - event.getResource().getTransferStartTime());
+    }
+
+    private static boolean isArtifactDownload(TransferEvent event) {
+        TransferResource resource = event.getResource();
+        String id = resource.getRepositoryId();
+        String name = resource.getResourceName();
+        return event.getRequestType() == TransferEvent.RequestType.GET && id != null && !id.isEmpty()
+                && name != null && isArtifact(name);
+    }
+
+    /**
+     * Returns remote repositories in order in which they should be tried for given artifact.
+     *
+     * @param repositories configured remote repositories
+     * @param artifact
+     * @param pinned ids of repositories that are always tried first
+     * @return
+     */
+    List<RemoteRepository> order(List<RemoteRepository> repositories, Artifact artifact, Collection<String> pinned) {
+        if (repositories.size() < 2 || requests.incrementAndGet() % EXPLORATION_INTERVAL == 0) {
+            return repositories;
+        }
+        String prefix = prefix(artifact.getGroupId().replace('.', '/') + "/" + artifact.getArtifactId() + "/");
+
+        List<RemoteRepository> result = new ArrayList<>(repositories.size());
+        List<RemoteRepository> ordered = new ArrayList<>(repositories.size());
+        List<Double> scores = new ArrayList<>(repositories.size());
+        for (RemoteRepository repository : repositories) {
+            if (isPinned(repository, pinned)) {
+                result.add(repository);
+                continue;
+            }
+            Statistics statistics = statistics(repository.getId());
+            if (statistics == null) {
+                // not enough data yet
+                return repositories;
+            }
+            Statistics prefixStatistics = prefix == null ? null : prefixes.get(repository.getId() + "|" + prefix);
+            double hitRate = prefixStatistics != null && prefixStatistics.attempts() >= MIN_SAMPLES
+                    ? prefixStatistics.hitRate() : statistics.hitRate();
+            ordered.add(repository);
+            scores.add(hitRate / Math.max(1d, statistics.latency()));
+        }
+
+        List<Integer> indexes = new ArrayList<>(ordered.size());
+        for (int i = 0; i < ordered.size(); i++) {
+            indexes.add(i);
+        }
+        // stable - repositories with the same score stay in configured order
+        indexes.sort(Comparator.comparing((Integer i) -> scores.get(i)).reversed());
+        for (int i : indexes) {
+            result.add(ordered.get(i));
+        }
+        return result;
+    }
+
+    private Statistics statistics(String id) {
+        Statistics statistics = repositories.get(id);
+        return statistics == null || statistics.attempts() < MIN_SAMPLES ? null : statistics;
+    }
+
+    private static boolean isPinned(RemoteRepository repository, Collection<String> pinned) {
+        if (pinned.isEmpty()) {
+            return false;
+        }
+        if (pinned.contains(repository.getId())) {
+            return true;
+        }
+        for (RemoteRepository mirrored : repository.getMirroredRepositories()) {
+            if (pinned.contains(mirrored.getId())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks whether the resource is an artifact - not metadata, checksum or signature.
+     *
+     * @param name
+     * @return
+     */
+    private static boolean isArtifact(String name) {
+        return !name.endsWith("maven-metadata.xml") && !name.endsWith(".sha1") && !name.endsWith(".md5")
+                && !name.endsWith(".sha256") && !name.endsWith(".sha512") && !name.endsWith(".asc");
+    }
+
+    /**
+     * Two first segments of resource path.
+     *
+     * @param path
+     * @return
+     */
+    private static String prefix(String path) {
+        int start = path.startsWith("/") ? 1 : 0;
+        int first = path.indexOf('/', start);
+        if (first < 0) {
+            return null;
+        }
+        int second = path.indexOf('/', first + 1);
+        return second < 0 ? null : path.substring(start, second);
+    }
+
+    private static class Statistics {
+        private long attempts;
+        private long hits;
+        private long responses;
+        private double latency;
+
+        synchronized void record(boolean hit) {
+            attempts++;
+            if (hit) {
+                hits++;
+            }
+        }
+
+        synchronized void latency(long millis) {
+            responses++;
+            latency = responses == 1 ? millis : latency + WEIGHT * (millis - latency);
+        }
+
+        synchronized long attempts() {
+            return attempts;
+        }
+
+        /**
+         * Hit rate with Laplace smoothing.
+         *
+         * @return
+         */
+        synchronized double hitRate() {
+            return (hits + 1d) / (attempts + 2d);
+        }
+
+        /**
+         * Cost of trying the repository - moving average of time until the repository responded.
+         *
+         * @return
+         */
+        synchronized double latency() {
+            return latency;
+        }
+    }
+
+}
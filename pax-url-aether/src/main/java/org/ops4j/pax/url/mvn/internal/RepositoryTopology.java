@@ -0,0 +1,116 @@
+/*
+ * Copyright 2023 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.url.mvn.internal;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.aether.repository.RemoteRepository;
+
+/**
+ * <p>Immutable snapshot of repositories used by {@link AetherBasedResolver} - <em>default</em> repositories and
+ * <em>remote</em> repositories both before and after mirror, proxy and authentication processing. The snapshot
+ * is built once for a configuration, so resolution doesn't have to read the configuration, create
+ * {@link RemoteRepository remote repositories} and list {@code @multi} directories every time.</p>
+ *
+ * <p>Adding or removing a child of {@code @multi} directory changes modification time of the directory, so the
+ * snapshot remembers these times and {@link #isStale()} checks them. Because modification times have limited
+ * granularity, a directory modified just before the snapshot was built is not trusted and the snapshot is
+ * considered stale until such directory is old enough. When all {@code @multi} directories are watched by
+ * {@link MultiDirectoryWatcher}, the snapshot is also stale after the watcher detects a change - modification
+ * times are still checked, because some {@link java.nio.file.WatchService} implementations report changes
+ * with a delay.</p>
+ */
+class RepositoryTopology {
+
+    /**
+     * Directories modified less than this before building the snapshot may be modified again without
+     * changing their modification time.
+     */
+    private static final long TIMESTAMP_GRANULARITY = 2000L;
+
+    final List<AetherBasedResolver.LocalRepositoryWithConfig> defaultRepositories;
+    final List<RemoteRepository> remoteRepositories;
+    final List<RemoteRepository> configuredRepositories;
+
+    private final File[] multiDirectories;
+    private final long[] lastModified;
+    private final boolean trusted;
+    private final MultiDirectoryWatcher watcher;
+    private final long generation;
+
+    /**
+     * Creates the snapshot.
+     *
+     * @param defaultRepositories
+     * @param remoteRepositories remote repositories as configured
+     * @param configuredRepositories remote repositories after mirror, proxy and authentication processing
+     * @param multiDirectories {@code @multi} directories with modification times checked before they were listed
+     * @param timestamp time before the directories were listed
+     * @param watcher watcher of all the {@code multiDirectories} or {@code null} if they're not all watched
+     * @param generation generation of the {@code watcher} checked before the directories were listed
+     */
+    RepositoryTopology(List<AetherBasedResolver.LocalRepositoryWithConfig> defaultRepositories,
+            List<RemoteRepository> remoteRepositories, List<RemoteRepository> configuredRepositories,
+            Map<File, Long> multiDirectories, long timestamp, MultiDirectoryWatcher watcher, long generation) {
+        this.defaultRepositories = Collections.unmodifiableList(new ArrayList<>(defaultRepositories));
+        this.remoteRepositories = Collections.unmodifiableList(new ArrayList<>(remoteRepositories));
+        this.configuredRepositories = Collections.unmodifiableList(new ArrayList<>(configuredRepositories));
+        this.multiDirectories = new File[multiDirectories.size()];
+        this.lastModified = new long[multiDirectories.size()];
+        boolean trusted = true;
+        int i = 0;
+        for (Map.Entry<File, Long> e : multiDirectories.entrySet()) {
+            this.multiDirectories[i] = e.getKey();
+            this.lastModified[i] = e.getValue();
+            if (lastModified[i] > timestamp - TIMESTAMP_GRANULARITY) {
+                trusted = false;
+            }
+            if (watcher != null && this.multiDirectories[i].lastModified() != lastModified[i]) {
+                // changed after listing, but maybe before the watcher started watching it
+                trusted = false;
+            }
+            i++;
+        }
+        this.trusted = trusted;
+        this.watcher = watcher;
+        this.generation = generation;
+    }
+
+    /**
+     * Checks whether any of {@code @multi} directories might have been changed since the snapshot was built.
+     *
+     * @return
+     */
+    boolean isStale() {
+        if (!trusted) {
+            return true;
+        }
+        if (watcher != null && watcher.getGeneration() != generation) {
+            return true;
+        }
+        for (int i = 0; i < multiDirectories.length; i++) {
+            if (multiDirectories[i].lastModified() != lastModified[i]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+}
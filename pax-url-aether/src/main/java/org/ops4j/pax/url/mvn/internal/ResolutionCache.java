@@ -0,0 +1,158 @@
+/*
+ * Copyright 2023 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.url.mvn.internal;
+
+import java.io.File;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.aether.repository.RepositoryPolicy;
+
+/**
+ * <p>Bounded, in-memory cache of resolved artifact files. Entries are evicted in LRU order when the cache
+ * is full, when they expire (according to update policy of the repositories that were used for resolution)
+ * or when the cached file no longer exists.</p>
+ *
+ * <p>Only fixed, non-SNAPSHOT versions should be cached - the cache doesn't know anything about versions.</p>
+ */
+class ResolutionCache {
+
+    /** Expiration time for entries that never expire */
+    static final long NEVER = Long.MAX_VALUE;
+
+    private final int maxSize;
+    private final Map<String, Entry> entries;
+
+    /**
+     * Creates a cache for up to {@code maxSize} artifacts. When {@code maxSize <= 0}, nothing is cached.
+     *
+     * @param maxSize
+     */
+    ResolutionCache(int maxSize) {
+        this.maxSize = maxSize;
+        this.entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > ResolutionCache.this.maxSize;
+            }
+        };
+    }
+
+    /**
+     * Returns cached file if it's not expired and it still exists.
+     *
+     * @param key
+     * @return
+     */
+    File get(String key) {
+        if (maxSize <= 0) {
+            return null;
+        }
+        Entry entry;
+        synchronized (entries) {
+            entry = entries.get(key);
+        }
+        if (entry == null) {
+            return null;
+        }
+        if (entry.expires <= System.currentTimeMillis() || !entry.file.isFile()) {
+            synchronized (entries) {
+                entries.remove(key, entry);
+            }
+            return null;
+        }
+        return entry.file;
+    }
+
+    /**
+     * Caches a file until given time (in ms since epoch). Nothing is cached if the time is already in the past.
+     *
+     * @param key
+     * @param file
+     * @param expires
+     */
+    void put(String key, File file, long expires) {
+        if (maxSize <= 0 || file == null || expires <= System.currentTimeMillis()) {
+            return;
+        }
+        synchronized (entries) {
+            entries.put(key, new Entry(file, expires));
+        }
+    }
+
+    int getMaxSize() {
+        return maxSize;
+    }
+
+    void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    /**
+     * Translates Maven Resolver update policy into expiration time - in the same way as
+     * {@code org.eclipse.aether.internal.impl.DefaultUpdatePolicyAnalyzer} decides whether the update is required.
+     *
+     * @param updatePolicy
+     * @param now
+     * @return
+     */
+    static long expiration(String updatePolicy, long now) {
+        if (updatePolicy == null || updatePolicy.isEmpty()
+                || RepositoryPolicy.UPDATE_POLICY_NEVER.equals(updatePolicy)) {
+            return NEVER;
+        }
+        if (RepositoryPolicy.UPDATE_POLICY_ALWAYS.equals(updatePolicy)) {
+            return now;
+        }
+        if (RepositoryPolicy.UPDATE_POLICY_DAILY.equals(updatePolicy)) {
+            ZoneId zone = ZoneId.systemDefault();
+            return LocalDate.now(zone).plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli();
+        }
+        if (updatePolicy.startsWith(RepositoryPolicy.UPDATE_POLICY_INTERVAL)) {
+            String minutes = updatePolicy.substring(RepositoryPolicy.UPDATE_POLICY_INTERVAL.length() + 1);
+            try {
+                return now + TimeUnit.MINUTES.toMillis(Long.parseLong(minutes));
+            } catch (NumberFormatException e) {
+                // DefaultUpdatePolicyAnalyzer uses 24h in such case
+                return now + TimeUnit.DAYS.toMillis(1);
+            }
+        }
+        // unknown policy - DefaultUpdatePolicyAnalyzer treats it as "daily"
+        return expiration(RepositoryPolicy.UPDATE_POLICY_DAILY, now);
+    }
+
+    private static class Entry {
+        final File file;
+        final long expires;
+
+        Entry(File file, long expires) {
+            this.file = file;
+            this.expires = expires;
+        }
+    }
+
+}
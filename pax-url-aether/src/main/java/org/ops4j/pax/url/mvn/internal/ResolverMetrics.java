@@ -0,0 +1,195 @@
+/*
+ * Copyright 2023 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.url.mvn.internal;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+import org.ops4j.pax.url.mvn.MavenResolverMetrics;
+
+/**
+ * <p>Implementation of {@link MavenResolverMetrics} - stages are timed with {@link LatencyHistogram histograms}
+ * that are created on first use. Besides incremented counters, there may be <em>gauges</em> - counters which
+ * take values from other objects (like {@link SessionPool}). Registering a gauge with existing name replaces
+ * previous one, so resolver created after configuration change may take over the metrics. Downloads are
+ * tracked by {@link TransferStatistics}.</p>
+ */
+class ResolverMetrics implements MavenResolverMetrics {
+
+    private final ConcurrentMap<String, Stage> stages = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, LongAdder> counters = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, LongSupplier> gauges = new ConcurrentHashMap<>();
+    private final TransferStatistics transfers = new TransferStatistics();
+
+    /**
+     * Returns the listener to be installed in all sessions.
+     *
+     * @return
+     */
+    TransferStatistics getTransferListener() {
+        return transfers;
+    }
+
+    /**
+     * Returns start time of an operation to be passed to {@link #record}.
+     *
+     * @return
+     */
+    long start() {
+        return System.nanoTime();
+    }
+
+    /**
+     * Records duration of a stage that started at {@code start}.
+     *
+     * @param stage
+     * @param start
+     * @param success
+     */
+    void record(String stage, long start, boolean success) {
+        long duration = System.nanoTime() - start;
+        Stage s = stages.computeIfAbsent(stage, n -> new Stage());
+        s.histogram.record(duration);
+        if (!success) {
+            s.errors.increment();
+        }
+    }
+
+    void increment(String counter) {
+        counters.computeIfAbsent(counter, n -> new LongAdder()).increment();
+    }
+
+    void gauge(String name, LongSupplier value) {
+        gauges.put(name, value);
+    }
+
+    @Override
+    public Map<String, Timer> getTimers() {
+        Map<String, Timer> result = new TreeMap<>();
+        stages.forEach((name, stage) -> result.put(name, stage.snapshot()));
+        return result;
+    }
+
+    @Override
+    public Map<String, Long> getCounters() {
+        Map<String, Long> result = new TreeMap<>();
+        counters.forEach((name, counter) -> result.put(name, counter.sum()));
+        gauges.forEach((name, gauge) -> result.put(name, gauge.getAsLong()));
+        return result;
+    }
+
+    @Override
+    public Map<String, Transfers> getTransfers() {
+        return transfers.snapshot();
+    }
+
+    @Override
+    public void reset() {
+        stages.clear();
+        counters.clear();
+        transfers.reset();
+    }
+
+    private static class Stage {
+        final LatencyHistogram histogram = new LatencyHistogram();
+        final LongAdder errors = new LongAdder();
+
+        Timer snapshot() {
+            return new TimerSnapshot(histogram.getCount(), errors.sum(), micros(histogram.getMean()),
+                    micros(histogram.getMax()), micros(histogram.getPercentile(50.0)),
+                    micros(histogram.getPercentile(90.0)), micros(histogram.getPercentile(99.0)),
+                    micros(histogram.getPercentile(99.9)));
+        }
+
+        private static long micros(long nanos) {
+            return TimeUnit.NANOSECONDS.toMicros(nanos);
+        }
+    }
+
+    private static class TimerSnapshot implements Timer {
+        private final long count;
+        private final long errors;
+        private final long mean;
+        private final long max;
+        private final long p50;
+        private final long p90;
+        private final long p99;
+        private final long p999;
+
+        TimerSnapshot(long count, long errors, long mean, long max, long p50, long p90, long p99, long p999) {
+            this.count = count;
+            this.errors = errors;
+            this.mean = mean;
+            this.max = max;
+            this.p50 = p50;
+            this.p90 = p90;
+            this.p99 = p99;
+            this.p999 = p999;
+        }
+
+        @Override
+        public long getCount() {
+            return count;
+        }
+
+        @Override
+        public long getErrors() {
+            return errors;
+        }
+
+        @Override
+        public long getMeanMicros() {
+            return mean;
+        }
+
+        @Override
+        public long getMaxMicros() {
+            return max;
+        }
+
+        @Override
+        public long getP50Micros() {
+            return p50;
+        }
+
+        @Override
+        public long getP90Micros() {
+            return p90;
+        }
+
+        @Override
+        public long getP99Micros() {
+            return p99;
+        }
+
+        @Override
+        public long getP999Micros() {
+            return p999;
+        }
+
+        @Override
+        public String toString() {
+            return "count=" + count + ", errors=" + errors + ", mean=" + mean + "us, p50=" + p50 + "us, p90="
+                    + p90 + "us, p99=" + p99 + "us, p999=" + p999 + "us, max=" + max + "us";
+        }
+    }
+
+}
@@ -0,0 +1,294 @@
+/*
+ * Copyright 2023 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.url.mvn.internal;
+
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import org.eclipse.aether.DefaultRepositorySystemSession;
+import org.eclipse.aether.DefaultSessionData;
+import org.eclipse.aether.RepositorySystemSession;
+import org.eclipse.aether.repository.LocalRepository;
+import org.ops4j.pax.url.mvn.internal.AetherBasedResolver.LocalRepositoryWithConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>Pool of {@link RepositorySystemSession sessions} - separate for each {@link LocalRepository}, because
+ * each session is tied to single local repository.</p>
+ *
+ * <p>At most {@code max} sessions may be borrowed for single repository. When there's no session available,
+ * borrowing thread waits (up to {@code maxWait} ms) and then continues with new session that's not returned
+ * to the pool. At most {@code max} such <em>overflow</em> sessions may exist at the same time - when there are
+ * already so many of them, borrowing thread waits until any pooled or overflow session is released. Sessions
+ * that are idle for more than {@code idleTimeout} ms are removed from the pool, but {@code min} sessions are kept
+ * as long as the local repository exists.</p>
+ */
+class SessionPool {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SessionPool.class);
+
+    // session data key for the pool of pooled session. Sessions created when the pool was exhausted
+    // don't have it and are simply dropped when released
+    private static final String POOL_KEY = SessionPool.class.getName() + ".pool";
+    // session data key for the pool of overflow session
+    private static final String OVERFLOW_KEY = SessionPool.class.getName() + ".overflow";
+
+    private final int min;
+    private final int max;
+    private final long maxWait;
+    private final long idleTimeout;
+    private volatile Function<LocalRepositoryWithConfig, RepositorySystemSession> factory;
+
+    private final ConcurrentMap<LocalRepository, Pool> pools = new ConcurrentHashMap<>();
+
+    private final AtomicLong lastEviction = new AtomicLong(System.currentTimeMillis());
+
+    private final AtomicLong created = new AtomicLong();
+    private final AtomicLong borrowed = new AtomicLong();
+    private final AtomicLong waited = new AtomicLong();
+    private final AtomicLong evicted = new AtomicLong();
+
+    /**
+     * Creates new pool
+     *
+     * @param min number of sessions created during warm-up and kept when idle
+     * @param max maximum number of sessions borrowed for single local repository
+     * @param maxWait maximum time (ms) to wait for a session when {@code max} sessions are already borrowed
+     * @param idleTimeout time (ms) after which idle sessions are evicted
+     * @param factory creates new session for a repository
+     */
+    SessionPool(int min, int max, long maxWait, long idleTimeout,
+            Function<LocalRepositoryWithConfig, RepositorySystemSession> factory) {
+        this.max = Math.max(1, max);
+        this.min = Math.max(0, Math.min(min, this.max));
+        this.maxWait = maxWait;
+        this.idleTimeout = idleTimeout;
+        this.factory = factory;
+    }
+
+    /**
+     * Changes the factory used to create new sessions. Used when the pool is taken over by new resolver
+     * with equivalent configuration.
+     *
+     * @param factory
+     */
+    void setFactory(Function<LocalRepositoryWithConfig, RepositorySystemSession> factory) {
+        this.factory = factory;
+    }
+
+    /**
+     * Creates {@code min} sessions for given repository, so first resolutions don't have to.
+     *
+     * @param repo
+     */
+    void warmUp(LocalRepositoryWithConfig repo) {
+        Pool pool = pool(repo.repository);
+        long now = System.currentTimeMillis();
+        while (pool.idle.size() < min) {
+            pool.idle.addLast(new Idle(create(pool, repo), now));
+        }
+    }
+
+    /**
+     * Borrows a session for given repository - the session has to be {@link #release(RepositorySystemSession) released}
+     * after use.
+     *
+     * @param repo
+     * @return
+     */
+    RepositorySystemSession borrow(LocalRepositoryWithConfig repo) {
+        evictIdle();
+
+        Pool pool = pool(repo.repository);
+        borrowed.incrementAndGet();
+        if (!pool.permits.tryAcquire()) {
+            waited.incrementAndGet();
+            try {
+                while (!pool.permits.tryAcquire(Math.max(1L, maxWait), TimeUnit.MILLISECONDS)) {
+                    if (pool.overflow.tryAcquire()) {
+                        LOG.debug("No session available for {} after {}ms, creating new one outside of the pool", repo.repository, maxWait);
+                        return createOverflow(pool, repo);
+                    }
+                    // too many sessions outside of the pool too - wait for any session to be released
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                LOG.debug("Interrupted while waiting for a session for {}, creating new one outside of the pool", repo.repository);
+                created.incrementAndGet();
+                return factory.apply(repo);
+            }
+        }
+
+        Idle idle = pool.idle.pollFirst();
+        if (idle != null) {
+            return idle.session;
+        }
+        try {
+            return create(pool, repo);
+        } catch (RuntimeException | Error e) {
+            pool.permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns a session to the pool.
+     *
+     * @param session
+     */
+    void release(RepositorySystemSession session) {
+        Pool overflow = (Pool) session.getData().get(OVERFLOW_KEY);
+        if (overflow != null) {
+            // dropped - only the number of overflow sessions is tracked
+            overflow.overflow.release();
+            return;
+        }
+        Pool pool = (Pool) session.getData().get(POOL_KEY);
+        if (pool == null || pools.get(pool.repository) != pool) {
+            // session created outside of the pool or the pool was cleared/evicted
+            return;
+        }
+        if (session instanceof DefaultRepositorySystemSession) {
+            // state of previous resolution (like update checks already performed) is forgotten, so next
+            // resolution behaves like with new session
+            ((DefaultRepositorySystemSession) session).setData(new DefaultSessionData());
+            session.getData().set(POOL_KEY, pool);
+        }
+        // most recently used sessions are borrowed first, so the least recently used can time out
+        pool.idle.addFirst(new Idle(session, System.currentTimeMillis()));
+        pool.permits.release();
+    }
+
+    /**
+     * Removes all the sessions from the pool.
+     */
+    void clear() {
+        pools.clear();
+    }
+
+    long getCreated() {
+        return created.get();
+    }
+
+    long getBorrowed() {
+        return borrowed.get();
+    }
+
+    long getWaited() {
+        return waited.get();
+    }
+
+    long getEvicted() {
+        return evicted.get();
+    }
+
+    /**
+     * Number of idle sessions for all repositories.
+     *
+     * @return
+     */
+    int getIdle() {
+        int count = 0;
+        for (Pool pool : pools.values()) {
+            count += pool.idle.size();
+        }
+        return count;
+    }
+
+    private RepositorySystemSession create(Pool pool, LocalRepositoryWithConfig repo) {
+        RepositorySystemSession session = factory.apply(repo);
+        session.getData().set(POOL_KEY, pool);
+        created.incrementAndGet();
+        return session;
+    }
+
+    private RepositorySystemSession createOverflow(Pool pool, LocalRepositoryWithConfig repo) {
+        try {
+            RepositorySystemSession session = factory.apply(repo);
+            session.getData().set(OVERFLOW_KEY, pool);
+            created.incrementAndGet();
+            return session;
+        } catch (RuntimeException | Error e) {
+            pool.overflow.release();
+            throw e;
+        }
+    }
+
+    private Pool pool(LocalRepository repository) {
+        return pools.computeIfAbsent(repository, r -> new Pool(r, max));
+    }
+
+    /**
+     * Removes sessions idle for too long. This is checked during borrowing, but not more often than once
+     * per half of {@code idleTimeout}.
+     */
+    private void evictIdle() {
+        long now = System.currentTimeMillis();
+        long last = lastEviction.get();
+        if (idleTimeout <= 0 || now - last < idleTimeout / 2 || !lastEviction.compareAndSet(last, now)) {
+            return;
+        }
+        for (Iterator<Map.Entry<LocalRepository, Pool>> it = pools.entrySet().iterator(); it.hasNext(); ) {
+            Map.Entry<LocalRepository, Pool> e = it.next();
+            Pool pool = e.getValue();
+            // keep min sessions only for repositories that still exist
+            int keep = e.getKey().getBasedir().isDirectory() ? min : 0;
+            Idle oldest;
+            while (pool.idle.size() > keep && (oldest = pool.idle.peekLast()) != null
+                    && now - oldest.since > idleTimeout) {
+                if (pool.idle.removeLastOccurrence(oldest)) {
+                    evicted.incrementAndGet();
+                }
+            }
+            if (keep == 0 && pool.idle.isEmpty() && pool.permits.availablePermits() == max) {
+                it.remove();
+            }
+        }
+    }
+
+    private static class Pool {
+        final LocalRepository repository;
+        final Semaphore permits;
+        final Semaphore overflow;
+        final Deque<Idle> idle = new ConcurrentLinkedDeque<>();
+
+        Pool(LocalRepository repository, int max) {
+            this.repository = repository;
+            permits = new Semaphore(max);
+            overflow = new Semaphore(max);
+        }
+    }
+
+    private static class Idle {
+        final RepositorySystemSession session;
+        final long since;
+
+        Idle(RepositorySystemSession session, long since) {
+            this.session = session;
+            this.since = since;
+        }
+    }
+
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2023 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.url.mvn.internal;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * <p>Groups concurrent invocations of the same operation (identified by a key), so only the first caller
+ * actually performs the operation and all the callers that arrive while it's in progress share its result
+ * or exception.</p>
+ *
+ * <p>Nothing is remembered after the operation completes - this is not a cache.</p>
+ *
+ * @param <V> type of operation result
+ */
+class SingleFlight<V> {
+
+    private final ConcurrentMap<String, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Performs the operation in calling thread or waits for the same operation already in progress.
+     *
+     * @param key
+     * @param operation
+     * @return
+     * @throws IOException
+     */
+    V execute(String key, Callable<V> operation) throws IOException {
+        CompletableFuture<V> future = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, future);
+        if (existing != null) {
+            return await(existing);
+        }
+
+        try {
+            V result = operation.call();
+            future.complete(result);
+            return result;
+        } catch (IOException | RuntimeException | Error e) {
+            future.completeExceptionally(e);
+            throw e;
+        } catch (Exception e) {
+            future.completeExceptionally(e);
+            throw new IOException(e.getMessage(), e);
+        } finally {
+            inFlight.remove(key, future);
+        }
+    }
+
+    /**
+     * Performs the operation using passed {@link Executor} or joins the same operation already in progress.
+     *
+     * @param key
+     * @param operation
+     * @param executor
+     * @return a future, that may be cancelled without affecting other callers
+     */
+    CompletableFuture<V> submit(String key, Callable<V> operation, Executor executor) {
+        CompletableFuture<V> future = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, future);
+        if (existing != null) {
+            return existing.copy();
+        }
+
+        try {
+            executor.execute(() -> {
+                try {
+                    future.complete(operation.call());
+                } catch (Throwable t) {
+                    future.completeExceptionally(t);
+                } finally {
+                    inFlight.remove(key, future);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(key, future);
+            future.completeExceptionally(e);
+        }
+
+        return future.copy();
+    }
+
+    /**
+     * Completes all the operations in progress with given exception. Used when the operations will never finish.
+     *
+     * @param exception
+     */
+    void failAll(Throwable exception) {
+        for (CompletableFuture<V> future : inFlight.values()) {
+            future.completeExceptionally(exception);
+        }
+        inFlight.clear();
+    }
+
+    private V await(CompletableFuture<V> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the same operation in progress");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IOException(cause.getMessage(), cause);
+        }
+    }
+
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright 2023 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.url.mvn.internal;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.eclipse.aether.internal.impl.TrackingFileManager;
+
+/**
+ * <p>In-memory cache of tracking files used by {@link PaxLocalRepositoryManager}. Parsed content of each file is
+ * kept together with its modification time and length and the file is read again only when any of these
+ * change.</p>
+ *
+ * <p>Updates are written immediately, so they're visible to other processes sharing the local repository. Only
+ * concurrent updates of the same file are coalesced - while one thread writes the file, updates from other
+ * threads are collected and written by single next write. Updates being written are visible in
+ * {@link #read(File)} results.</p>
+ */
+public class TrackingFileCache {
+
+    private static final int MAX_ENTRIES = 10000;
+    private static final int LOCKS = 64;
+
+    private final TrackingFileManager trackingFileManager;
+
+    private final ConcurrentMap<File, Entry> entries = new ConcurrentHashMap<>();
+    // values are never modified - merged updates replace previous map
+    private final ConcurrentMap<File, Map<String, String>> pending = new ConcurrentHashMap<>();
+    // striped locks for writing tracking files
+    private final Object[] locks = new Object[LOCKS];
+
+    public TrackingFileCache(TrackingFileManager trackingFileManager) {
+        this.trackingFileManager = trackingFileManager;
+        for (int i = 0; i < LOCKS; i++) {
+            locks[i] = new Object();
+        }
+    }
+
+    /**
+     * Returns content of tracking file including pending updates. Returned {@link Properties} should not
+     * be modified.
+     *
+     * @param trackingFile
+     * @return {@code null} if the file doesn't exist and there are no pending updates for it
+     */
+    Properties read(File trackingFile) {
+        long lastModified = trackingFile.lastModified();
+        long length = trackingFile.length();
+        Entry entry = entries.get(trackingFile);
+        if (entry == null || entry.lastModified != lastModified || entry.length != length) {
+            Properties props = lastModified == 0L ? null : trackingFileManager.read(trackingFile);
+            entry = new Entry(lastModified, length, props);
+            if (entries.size() >= MAX_ENTRIES) {
+                entries.clear();
+            }
+            entries.put(trackingFile, entry);
+        }
+
+        Map<String, String> updates = pending.get(trackingFile);
+        if (updates == null) {
+            return entry.props;
+        }
+        Properties props = new Properties();
+        if (entry.props != null) {
+            props.putAll(entry.props);
+        }
+        props.putAll(updates);
+        return props;
+    }
+
+    /**
+     * Updates tracking file. If the file is being written by another thread, the updates are merged with other
+     * pending updates and written together when the write ends.
+     *
+     * @param trackingFile
+     * @param updates
+     */
+    void update(File trackingFile, Map<String, String> updates) {
+        pending.merge(trackingFile, new HashMap<>(updates), (previous, added) -> {
+            Map<String, String> merged = new HashMap<>(previous);
+            merged.putAll(added);
+            return merged;
+        });
+        synchronized (locks[(trackingFile.hashCode() & 0x7fffffff) % LOCKS]) {
+            write(trackingFile);
+        }
+    }
+
+    /**
+     * Writes pending updates of tracking file - called with the lock for this file held.
+     *
+     * @param trackingFile
+     */
+    private void write(File trackingFile) {
+        Map<String, String> updates;
+        // already written by another thread when there's nothing pending
+        while ((updates = pending.get(trackingFile)) != null) {
+            try {
+                Properties props = trackingFileManager.update(trackingFile, updates);
+                entries.put(trackingFile, new Entry(trackingFile.lastModified(), trackingFile.length(), props));
+            } finally {
+                // updates merged in the meantime are written in next iteration. Failed updates are not retried,
+                // just like with TrackingFileManager used directly
+                pending.remove(trackingFile, updates);
+            }
+        }
+    }
+
+    private static class Entry {
+        final long lastModified;
+        final long length;
+        final Properties props;
+
+        Entry(long lastModified, long length, Properties props) {
+            this.lastModified = lastModified;
+            this.length = length;
+            this.props = props;
+        }
+    }
+
+}
@@ -0,0 +1,158 @@
+/*
+ * Copyright 2023 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.url.mvn.internal;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.eclipse.aether.transfer.AbstractTransferListener;
+import org.eclipse.aether.transfer.ArtifactNotFoundException;
+import org.eclipse.aether.transfer.MetadataNotFoundException;
+import org.eclipse.aether.transfer.TransferEvent;
+import org.ops4j.pax.url.mvn.MavenResolverMetrics;
+
+/**
+ * {@link org.eclipse.aether.transfer.TransferListener} installed in all sessions of the resolver, which
+ * aggregates statistics of downloads ({@link TransferEvent.RequestType#GET}) by remote repository id.
+ */
+class TransferStatistics extends AbstractTransferListener {
+
+    private final ConcurrentMap<String, Repository> repositories = new ConcurrentHashMap<>();
+
+    @Override
+    public void transferCorrupted(TransferEvent event) {
+        if (event.getRequestType() == TransferEvent.RequestType.GET) {
+            repository(event).checksumFailures.increment();
+        }
+    }
+
+    @Override
+    public void transferSucceeded(TransferEvent event) {
+        if (event.getRequestType() == TransferEvent.RequestType.GET) {
+            Repository repository = repository(event);
+            repository.succeeded.increment();
+            repository.bytes.add(event.getTransferredBytes());
+            long start = event.getResource().getTransferStartTime();
+            repository.time.add(Math.max(0L, System.currentTimeMillis() - start));
+        }
+    }
+
+    @Override
+    public void transferFailed(TransferEvent event) {
+        if (event.getRequestType() == TransferEvent.RequestType.GET) {
+            Exception e = event.getException();
+            if (e instanceof ArtifactNotFoundException || e instanceof MetadataNotFoundException) {
+                repository(event).notFound.increment();
+            } else {
+                repository(event).failed.increment();
+            }
+        }
+    }
+
+    Map<String, MavenResolverMetrics.Transfers> snapshot() {
+        Map<String, MavenResolverMetrics.Transfers> result = new TreeMap<>();
+        repositories.forEach((id, repository) -> result.put(id, repository.snapshot()));
+        return result;
+    }
+
+    void reset() {
+        repositories.clear();
+    }
+
+    private Repository repository(TransferEvent event) {
+        String id = event.getResource().getRepositoryId();
+        return repositories.computeIfAbsent(id == null || id.isEmpty() ? event.getResource().getRepositoryUrl() : id,
+                k -> new Repository());
+    }
+
+    private static class Repository {
+        final LongAdder succeeded = new LongAdder();
+        final LongAdder failed = new LongAdder();
+        final LongAdder notFound = new LongAdder();
+        final LongAdder checksumFailures = new LongAdder();
+        final LongAdder bytes = new LongAdder();
+        final LongAdder time = new LongAdder();
+
+        MavenResolverMetrics.Transfers snapshot() {
+            return new TransfersSnapshot(succeeded.sum(), failed.sum(), notFound.sum(), checksumFailures.sum(),
+                    bytes.sum(), time.sum());
+        }
+    }
+
+    private static class TransfersSnapshot implements MavenResolverMetrics.Transfers {
+        private final long succeeded;
+        private final long failed;
+        private final long notFound;
+        private final long checksumFailures;
+        private final long bytes;
+        private final long time;
+
+        TransfersSnapshot(long succeeded, long failed, long notFound, long checksumFailures, long bytes, long time) {
+            this.succeeded = succeeded;
+            this.failed = failed;
+            this.notFound = notFound;
+            this.checksumFailures = checksumFailures;
+            this.bytes = bytes;
+            this.time = time;
+        }
+
+        @Override
+        public long getSucceeded() {
+            return succeeded;
+        }
+
+        @Override
+        public long getFailed() {
+            return failed;
+        }
+
+        @Override
+        public long getNotFound() {
+            return notFound;
+        }
+
+        @Override
+        public long getChecksumFailures() {
+            return checksumFailures;
+        }
+
+        @Override
+        public long getBytes() {
+            return bytes;
+        }
+
+        @Override
+        public long getTimeMillis() {
+            return time;
+        }
+
+        @Override
+        public long getBytesPerSecond() {
+            // transfers shorter than 1ms are counted as 1ms
+            return bytes * 1000L / Math.max(1L, time);
+        }
+
+        @Override
+        public String toString() {
+            return "succeeded=" + succeeded + ", failed=" + failed + ", notFound=" + notFound
+                    + ", checksumFailures=" + checksumFailures + ", bytes=" + bytes + ", time=" + time + "ms";
+        }
+    }
+
+}
@@ -169,4 +169,14 @@ public interface MavenConfiguration {
      */
     Settings getSettings();
 
+    /**
+     * Returns a value that changes whenever (decrypted) {@link #getSettings() settings} may be different, so
+     * the settings don't have to be serialized to detect a change.
+     *
+     * @return the fingerprint or {@code null} if it's not known (e.g., settings were set explicitly)
+     */
+    default String getSettingsFingerprint() {
+        return null;
+    }
+
 }
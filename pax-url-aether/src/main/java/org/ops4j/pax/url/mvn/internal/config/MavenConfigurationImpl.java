@@ -104,14 +104,34 @@ public class MavenConfigurationImpl implements MavenConfiguration {
     private final PropertyResolver m_propertyResolver;
 
     /**
-     * Built and decrypted settings.
+     * Built settings - decrypted on first access.
      */
     private Settings settings;
 
     /**
-     * Settings decrypter that can be used each time new settings are set
+     * Key of the settings in {@link SettingsCache} - {@code null} if settings are not cached.
      */
-    private final SettingsDecrypter decrypter;
+    private String settingsKey;
+
+    /**
+     * Key of security settings used to decrypt {@link #settings}.
+     */
+    private String securityKey;
+
+    /**
+     * Whether {@link #settings} still have to be decrypted.
+     */
+    private boolean decryptionPending;
+
+    /**
+     * Settings decrypter that can be used each time new settings are set - created when needed.
+     */
+    private SettingsDecrypter decrypter;
+
+    /**
+     * Profile activation doesn't depend on the configuration.
+     */
+    private static final ProfileSelector PROFILE_SELECTOR = new ProfileSelectorSupplier().get();
 
     /**
      * Map of resolved/cached properties. Properties are stored with their expected type.
@@ -134,10 +154,17 @@ public class MavenConfigurationImpl implements MavenConfiguration {
         m_pid = pid == null || pid.trim().isEmpty() ? "" : pid.trim() + ".";
         m_propertyResolver = propertyResolver;
 
-        // build settings (not decrypted yet)
+        // build settings (not decrypted yet) - or take a copy of settings already built from the same files
         File settingsFile = getSettingsFile();
+        boolean useFallbackRepositories = useFallbackRepositories();
+        String mirror = globalMirror();
+        settingsKey = SettingsCache.key(settingsFile, useFallbackRepositories, mirror);
         try {
-            settings = buildSettings(settingsFile, useFallbackRepositories());
+            if (settingsKey != null) {
+                settings = SettingsCache.settings(settingsKey, () -> buildSettings(settingsFile, useFallbackRepositories, mirror));
+            } else {
+                settings = buildSettings(settingsFile, useFallbackRepositories, mirror);
+            }
         } catch (SettingsBuildingException e) {
             throw new IllegalArgumentException("Can't parse settings.xml file: " + e.getMessage(), e);
         }
@@ -145,19 +172,11 @@ public class MavenConfigurationImpl implements MavenConfiguration {
         // determine local repository - possibly using a value from settings file
         determineLocalRepository();
 
-        // build security settings (settings-security.xml) to decrypt settings.
+        // servers and proxies are decrypted (using settings-security.xml) only when settings are needed
         File securitySettingsFile = getSecuritySettingsFile();
         if (securitySettingsFile != null) {
-            DefaultPlexusCipher plexusCipher = new DefaultPlexusCipher();
-            DefaultSecDispatcher secDispatcher = new DefaultSecDispatcher(
-                    plexusCipher,
-                    Collections.emptyMap(),
-                    securitySettingsFile.getAbsolutePath());
-
-            decrypter = new DefaultSettingsDecrypter(secDispatcher);
-            decryptCurrentSettings();
-        } else {
-            decrypter = null;
+            securityKey = SettingsCache.securityKey(securitySettingsFile);
+            decryptionPending = true;
         }
     }
 
@@ -422,7 +441,7 @@ public class MavenConfigurationImpl implements MavenConfiguration {
      * @return
      */
     private Collection<String> getActiveProfileIDs() {
-        ProfileSelector selector = new ProfileSelectorSupplier().get();
+        ProfileSelector selector = PROFILE_SELECTOR;
 
         // see eu.maveniverse.maven.mima.runtime.shared.StandaloneRuntimeSupport.convertToSettingsProfile()
         List<Profile> settingsProfiles = settings.getProfiles();
@@ -499,9 +518,10 @@ public class MavenConfigurationImpl implements MavenConfiguration {
      *
      * @param settingsFile
      * @param useFallbackRepositories
+     * @param mirror global mirror specification, may be {@code null}
      * @return
      */
-    private Settings buildSettings(File settingsFile, boolean useFallbackRepositories) throws SettingsBuildingException {
+    private Settings buildSettings(File settingsFile, boolean useFallbackRepositories, String mirror) throws SettingsBuildingException {
         Settings settings;
         if (settingsFile == null) {
             settings = new Settings();
@@ -534,11 +554,6 @@ public class MavenConfigurationImpl implements MavenConfiguration {
             settings.addActiveProfile("fallback");
         }
 
-        // PAXURL-351 - external configuration of _single_ Mirror for all repositories
-        String mirror = System.getenv(ServiceConstants.ENV_MAVEN_MIRROR_URL);
-        if (mirror == null || mirror.trim().isEmpty()) {
-            mirror = System.getProperty(ServiceConstants.SYS_MAVEN_MIRROR_URL, "");
-        }
         if (mirror != null && !mirror.trim().isEmpty()) {
             String[] mirrorData = mirror.trim().split("::");
             String id = "mirror";
@@ -561,12 +576,42 @@ public class MavenConfigurationImpl implements MavenConfiguration {
         return settings;
     }
 
+    /**
+     * PAXURL-351 - external configuration of _single_ Mirror for all repositories
+     *
+     * @return
+     */
+    private String globalMirror() {
+        String mirror = System.getenv(ServiceConstants.ENV_MAVEN_MIRROR_URL);
+        if (mirror == null || mirror.trim().isEmpty()) {
+            mirror = System.getProperty(ServiceConstants.SYS_MAVEN_MIRROR_URL, "");
+        }
+        return mirror;
+    }
+
     private void decryptCurrentSettings() {
+        if (decrypter == null) {
+            // build security settings (settings-security.xml) to decrypt settings.
+            DefaultPlexusCipher plexusCipher = new DefaultPlexusCipher();
+            DefaultSecDispatcher secDispatcher = new DefaultSecDispatcher(
+                    plexusCipher,
+                    Collections.emptyMap(),
+                    getSecuritySettingsFile().getAbsolutePath());
+            decrypter = new DefaultSettingsDecrypter(secDispatcher);
+        }
+        if (settingsKey != null) {
+            SettingsCache.decrypt(settingsKey, securityKey, settings, this::decrypt);
+        } else {
+            SettingsDecryptionResult result = decrypt(settings);
+            // only servers and proxies are decrypted
+            settings.setServers(result.getServers());
+            settings.setProxies(result.getProxies());
+        }
+    }
+
+    private SettingsDecryptionResult decrypt(Settings settings) {
         SettingsDecryptionRequest request = new DefaultSettingsDecryptionRequest(settings);
-        SettingsDecryptionResult result = decrypter.decrypt(request);
-        // only servers and proxies are decrypted
-        settings.setServers(result.getServers());
-        settings.setProxies(result.getProxies());
+        return decrypter.decrypt(request);
     }
 
     private void determineLocalRepository() {
@@ -617,16 +662,25 @@ public class MavenConfigurationImpl implements MavenConfiguration {
     }
 
     @Override
-    public Settings getSettings() {
+    public synchronized Settings getSettings() {
+        if (decryptionPending) {
+            decryptionPending = false;
+            decryptCurrentSettings();
+        }
         return settings;
     }
 
-    public void setSettings(Settings settings) {
+    public synchronized void setSettings(Settings settings) {
         this.settings = settings;
+        // not built from settings.xml anymore
+        this.settingsKey = null;
         determineLocalRepository();
-        if (decrypter != null) {
-            decryptCurrentSettings();
-        }
+        decryptionPending = getSecuritySettingsFile() != null;
+    }
+
+    @Override
+    public synchronized String getSettingsFingerprint() {
+        return settingsKey == null ? null : settingsKey + "|" + securityKey + "|" + settings.getLocalRepository();
     }
 
     // ---- Property related methods
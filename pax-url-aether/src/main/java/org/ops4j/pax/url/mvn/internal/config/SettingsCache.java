@@ -0,0 +1,205 @@
+/*
+ * Copyright 2023 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.url.mvn.internal.config;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import org.apache.maven.settings.Proxy;
+import org.apache.maven.settings.Server;
+import org.apache.maven.settings.Settings;
+import org.apache.maven.settings.building.SettingsBuildingException;
+import org.apache.maven.settings.crypto.SettingsDecryptionResult;
+
+/**
+ * <p>Cache of built (and decrypted) Maven {@link Settings} shared by all {@link MavenConfigurationImpl} instances,
+ * so the same {@code settings.xml} is not built again after every configuration change.</p>
+ *
+ * <p>The key is a digest of everything the built settings depend on - content of {@code settings.xml},
+ * fallback repositories flag and global mirror. When {@code settings.xml} uses interpolation, system properties
+ * are part of the key too (environment variables don't change during the lifetime of JVM). Decrypted servers and
+ * proxies are remembered together with a digest of {@code settings-security.xml} used to decrypt them. Each
+ * configuration gets its own copy of cached settings, because the settings are modified later (e.g., local
+ * repository is set).</p>
+ */
+final class SettingsCache {
+
+    private static final int MAX_ENTRIES = 16;
+
+    private static final Map<String, Entry> CACHE = new ConcurrentHashMap<>();
+
+    private SettingsCache() {
+    }
+
+    /**
+     * Calculates the key for settings built from given files.
+     *
+     * @param settingsFile may be {@code null}
+     * @param useFallbackRepositories
+     * @param mirror global mirror
+     * @return the key or {@code null} if the file can't be read
+     */
+    static String key(File settingsFile, boolean useFallbackRepositories, String mirror) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            boolean interpolated = update(digest, settingsFile);
+            digest.update(("fallback=" + useFallbackRepositories + "\nmirror=" + mirror + "\n")
+                    .getBytes(StandardCharsets.UTF_8));
+            if (interpolated) {
+                Properties properties = System.getProperties();
+                Map<String, String> sorted = new TreeMap<>();
+                for (String name : properties.stringPropertyNames()) {
+                    sorted.put(name, properties.getProperty(name));
+                }
+                digest.update(sorted.toString().getBytes(StandardCharsets.UTF_8));
+            }
+            return hex(digest);
+        } catch (IOException | NoSuchAlgorithmException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Calculates the key of security settings used to decrypt the settings.
+     *
+     * @param securitySettingsFile
+     * @return the key or {@code null} if the file can't be read
+     */
+    static String securityKey(File securitySettingsFile) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            update(digest, securitySettingsFile);
+            return hex(digest);
+        } catch (IOException | NoSuchAlgorithmException e) {
+            return null;
+        }
+    }
+
+    private static String hex(MessageDigest digest) {
+        StringBuilder sb = new StringBuilder();
+        for (byte b : digest.digest()) {
+            sb.append(String.format("%02x", b));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Adds path and content of a file to the digest.
+     *
+     * @param digest
+     * @param file
+     * @return whether the file uses {@code ${...}} expressions
+     * @throws IOException
+     */
+    private static boolean update(MessageDigest digest, File file) throws IOException {
+        if (file == null) {
+            digest.update((byte) 0);
+            return false;
+        }
+        byte[] content = Files.readAllBytes(file.toPath());
+        digest.update(file.getAbsolutePath().getBytes(StandardCharsets.UTF_8));
+        digest.update((byte) 0);
+        digest.update(content);
+        digest.update((byte) 0);
+        return new String(content, StandardCharsets.UTF_8).contains("${");
+    }
+
+    /**
+     * Returns a copy of settings for the key, building the settings if they're not cached.
+     *
+     * @param key
+     * @param builder
+     * @return
+     * @throws SettingsBuildingException
+     */
+    static Settings settings(String key, Builder builder) throws SettingsBuildingException {
+        Entry entry = CACHE.get(key);
+        if (entry == null) {
+            entry = new Entry(builder.build());
+            if (CACHE.size() >= MAX_ENTRIES) {
+                CACHE.clear();
+            }
+            Entry previous = CACHE.putIfAbsent(key, entry);
+            if (previous != null) {
+                entry = previous;
+            }
+        }
+        return entry.settings.clone();
+    }
+
+    /**
+     * Sets decrypted servers and proxies in given settings (obtained from {@link #settings}). The decryption
+     * is performed only once for the key and security settings.
+     *
+     * @param key
+     * @param securityKey key of security settings used by the {@code decrypter}, may be {@code null}
+     * @param settings
+     * @param decrypter
+     */
+    static void decrypt(String key, String securityKey, Settings settings,
+            Function<Settings, SettingsDecryptionResult> decrypter) {
+        Entry entry = CACHE.get(key);
+        if (entry == null || securityKey == null) {
+            // evicted in the meantime or security settings can't be read
+            SettingsDecryptionResult result = decrypter.apply(settings);
+            settings.setServers(result.getServers());
+            settings.setProxies(result.getProxies());
+            return;
+        }
+        synchronized (entry) {
+            if (!securityKey.equals(entry.securityKey)) {
+                SettingsDecryptionResult result = decrypter.apply(entry.settings.clone());
+                entry.securityKey = securityKey;
+                entry.proxies = result.getProxies();
+                entry.servers = result.getServers();
+            }
+            List<Server> servers = new ArrayList<>(entry.servers.size());
+            entry.servers.forEach(s -> servers.add(s.clone()));
+            List<Proxy> proxies = new ArrayList<>(entry.proxies.size());
+            entry.proxies.forEach(p -> proxies.add(p.clone()));
+            settings.setServers(servers);
+            settings.setProxies(proxies);
+        }
+    }
+
+    @FunctionalInterface
+    interface Builder {
+        Settings build() throws SettingsBuildingException;
+    }
+
+    private static class Entry {
+        final Settings settings;
+        String securityKey;
+        List<Server> servers;
+        List<Proxy> proxies;
+
+        Entry(Settings settings) {
+            this.settings = settings;
+        }
+    }
+
+}
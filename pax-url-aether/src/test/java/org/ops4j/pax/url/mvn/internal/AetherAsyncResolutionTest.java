@@ -0,0 +1,99 @@
+/*
+ * Copyright 2023 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.url.mvn.internal;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import org.junit.Test;
+import org.ops4j.pax.url.mvn.internal.config.MavenConfigurationImpl;
+import org.ops4j.util.property.PropertiesPropertyResolver;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class AetherAsyncResolutionTest {
+
+    @Test
+    public void resolveAsync() throws Exception {
+        AetherBasedResolver resolver = new AetherBasedResolver(basicMavenConfiguration("false"));
+
+        CompletableFuture<File> f1 = resolver.resolveAsync("mvn:ant/ant/1.5.1");
+        CompletableFuture<File> f2 = resolver.resolveAsync("ant", "ant", null, "jar", "1.5.1");
+        CompletableFuture<File> f3 = resolver.resolveAsync("mvn:ant/ant/1.5.1-SNAPSHOT");
+
+        assertTrue(f1.get().getCanonicalPath().endsWith("repo2/ant/ant/1.5.1/ant-1.5.1.jar"));
+        assertEquals(f1.get(), f2.get());
+        assertTrue(f3.get().getCanonicalPath().endsWith("ant/ant/1.5.1-SNAPSHOT/ant-1.5.1-SNAPSHOT.jar"));
+        resolver.close();
+    }
+
+    @Test
+    public void resolveAsyncWithVirtualThreads() throws Exception {
+        AetherBasedResolver resolver = new AetherBasedResolver(basicMavenConfiguration("true"));
+
+        assertTrue(resolver.resolveAsync("mvn:ant/ant/1.5.1").get().getCanonicalPath().endsWith("repo2/ant/ant/1.5.1/ant-1.5.1.jar"));
+        resolver.close();
+    }
+
+    @Test
+    public void resolveAsyncFailures() throws Exception {
+        AetherBasedResolver resolver = new AetherBasedResolver(basicMavenConfiguration("false"));
+
+        try {
+            resolver.resolveAsync("mvn:ant/ant/1.5.3").get();
+            fail("Should not resolve ant:ant:1.5.3");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof IOException);
+        }
+        try {
+            resolver.resolveAsync("ant/ant/1.5.1").get();
+            fail("Should not accept non mvn: URL");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof IllegalArgumentException);
+        }
+        resolver.close();
+
+        try {
+            resolver.resolveAsync("mvn:ant/ant/1.5.1").get();
+            fail("Should not resolve after close()");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+    }
+
+    private MavenConfigurationImpl basicMavenConfiguration(String virtualThreads) {
+        Properties properties = new Properties();
+        properties.setProperty("pid.localRepository", "target/" + UUID.randomUUID().toString());
+
+        File defaultRepository = new File("src/test/resources", "repo2"); // there should be ant:ant:1.5.1
+        File remoteRepository = new File("src/test/resources", "repomulti_snapshots/r1"); // ant:ant:1.5.1-SNAPSHOT
+        properties.setProperty("pid.defaultRepositories", defaultRepository.toURI().toString() + "@id=my-repo2");
+        properties.setProperty("pid.repositories", remoteRepository.toURI().toString() + "@id=r1@snapshots");
+        properties.setProperty("pid.useFallbackRepositories", "false");
+        properties.setProperty("pid.globalChecksumPolicy", "ignore");
+        properties.setProperty("pid.connection.retryCount", "0");
+        properties.setProperty("pid.asyncThreads", "2");
+        properties.setProperty("pid.asyncVirtualThreads", virtualThreads);
+        return new MavenConfigurationImpl(new PropertiesPropertyResolver(properties), "pid");
+    }
+
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2023 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.url.mvn.internal;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import java.util.UUID;
+
+import org.junit.Test;
+import org.ops4j.pax.url.mvn.internal.config.MavenConfigurationImpl;
+import org.ops4j.util.property.PropertiesPropertyResolver;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class AetherBatchResolutionTest {
+
+    @Test
+    public void resolveAllFromDefaultAndRemoteRepositories() throws IOException {
+        AetherBasedResolver resolver = new AetherBasedResolver(basicMavenConfiguration());
+
+        List<File> files = resolver.resolveAll(Arrays.asList(
+                "mvn:ant/ant/1.5.1-SNAPSHOT",
+                "mvn:ant/ant/1.5.1",
+                "mvn:ant/ant/[1.5,1.6)"
+        ));
+
+        assertEquals(3, files.size());
+        assertTrue(files.get(0).getCanonicalPath().endsWith("ant/ant/1.5.1-SNAPSHOT/ant-1.5.1-SNAPSHOT.jar"));
+        assertTrue(files.get(0).getCanonicalPath().contains("target"));
+        assertTrue(files.get(1).getCanonicalPath().endsWith("repo2/ant/ant/1.5.1/ant-1.5.1.jar"));
+        assertTrue(files.get(2).getCanonicalPath().endsWith("repo2/ant/ant/1.5.1/ant-1.5.1.jar"));
+        resolver.close();
+    }
+
+    @Test
+    public void resolveAllWithMissingArtifact() throws IOException {
+        AetherBasedResolver resolver = new AetherBasedResolver(basicMavenConfiguration());
+
+        try {
+            resolver.resolveAll(Arrays.asList("mvn:ant/ant/1.5.1", "mvn:ant/ant/1.5.3"));
+            fail("Should not resolve ant:ant:1.5.3");
+        } catch (IOException e) {
+            assertTrue(e.getMessage().contains("ant:ant:jar:1.5.3"));
+        }
+        resolver.close();
+    }
+
+    private MavenConfigurationImpl basicMavenConfiguration() {
+        Properties properties = new Properties();
+        properties.setProperty("pid.localRepository", "target/" + UUID.randomUUID().toString());
+
+        File defaultRepository = new File("src/test/resources", "repo2"); // there should be ant:ant:1.5.1
+        File remoteRepository = new File("src/test/resources", "repomulti_snapshots/r1"); // ant:ant:1.5.1-SNAPSHOT
+        properties.setProperty("pid.defaultRepositories", defaultRepository.toURI().toString() + "@id=my-repo2");
+        properties.setProperty("pid.repositories", remoteRepository.toURI().toString() + "@id=r1@snapshots");
+        properties.setProperty("pid.useFallbackRepositories", "false");
+        properties.setProperty("pid.globalChecksumPolicy", "ignore");
+        properties.setProperty("pid.connection.retryCount", "0");
+        return new MavenConfigurationImpl(new PropertiesPropertyResolver(properties), "pid");
+    }
+
+}
@@ -0,0 +1,210 @@
+/*
+ * Copyright 2023 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.url.mvn.internal;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.UUID;
+
+import org.junit.Test;
+import org.ops4j.pax.url.mvn.internal.config.MavenConfigurationImpl;
+import org.ops4j.util.property.PropertiesPropertyResolver;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class AetherParallelResolutionTest {
+
+    @Test
+    public void parallelDefaultRepositoriesKeepPriority() throws IOException {
+        File repo2 = new File("src/test/resources", "repo2"); // there should be ant:ant:1.5.1
+        File copy = new File("target/" + UUID.randomUUID());
+        File jar = new File(copy, "ant/ant/1.5.1/ant-1.5.1.jar");
+        assertTrue(jar.getParentFile().mkdirs());
+        Files.copy(new File(repo2, "ant/ant/1.5.1/ant-1.5.1.jar").toPath(), jar.toPath());
+        File empty = new File("target/" + UUID.randomUUID());
+        assertTrue(empty.mkdirs());
+
+        AetherBasedResolver resolver = new AetherBasedResolver(basicMavenConfiguration(empty, copy, repo2));
+        for (int i = 0; i < 5; i++) {
+            assertEquals(jar.getCanonicalFile(), resolver.resolve("mvn:ant/ant/1.5.1").getCanonicalFile());
+        }
+        resolver.close();
+
+        resolver = new AetherBasedResolver(basicMavenConfiguration(empty, repo2, copy));
+        for (int i = 0; i < 5; i++) {
+            assertTrue(resolver.resolve("mvn:ant/ant/1.5.1").getCanonicalPath().endsWith("repo2/ant/ant/1.5.1/ant-1.5.1.jar"));
+        }
+        // ranges are still checked sequentially
+        assertTrue(resolver.resolve("mvn:ant/ant/[1.5,1.6)").getCanonicalPath().endsWith("repo2/ant/ant/1.5.1/ant-1.5.1.jar"));
+        try {
+            resolver.resolve("mvn:ant/ant/1.5.3");
+            fail("Should not resolve ant:ant:1.5.3");
+        } catch (IOException expected) {
+        }
+        resolver.close();
+    }
+
+    @Test
+    public void parallelMetadataSkipsSlowRepository() throws Exception {
+        File remote1 = new File("target/" + UUID.randomUUID());
+        writeMetadata(new File(remote1, "org/ops4j/example/maven-metadata.xml"), "1.0");
+        File remote2 = new File("target/" + UUID.randomUUID());
+        writeMetadata(new File(remote2, "org/ops4j/example/maven-metadata.xml"), "1.1");
+
+        // accepts connections, but never responds
+        List<Socket> clients = new ArrayList<>();
+        try (ServerSocket server = new ServerSocket(0)) {
+            Thread acceptor = new Thread(() -> {
+                try {
+                    while (true) {
+                        clients.add(server.accept());
+                    }
+                } catch (IOException ignored) {
+                }
+            });
+            acceptor.setDaemon(true);
+            acceptor.start();
+
+            Properties properties = new Properties();
+            properties.setProperty("pid.localRepository", "target/" + UUID.randomUUID().toString());
+            properties.setProperty("pid.repositories", remote1.toURI() + "@id=remote1,"
+                    + "http://localhost:" + server.getLocalPort() + "/repository@id=slow,"
+                    + remote2.toURI() + "@id=remote2");
+            properties.setProperty("pid.useFallbackRepositories", "false");
+            properties.setProperty("pid.parallelMetadata", "true");
+            properties.setProperty("pid.parallelMetadataTimeout", "500");
+            properties.setProperty("pid.timeout", "30000");
+            AetherBasedResolver resolver = new AetherBasedResolver(new MavenConfigurationImpl(new PropertiesPropertyResolver(properties), "pid"));
+
+            long start = System.currentTimeMillis();
+            File metadata = resolver.resolveMetadata("org.ops4j", "example", "maven-metadata.xml", null);
+            assertTrue(System.currentTimeMillis() - start < 10000);
+            String content = new String(Files.readAllBytes(metadata.toPath()), StandardCharsets.UTF_8);
+            assertTrue(content.contains("<version>1.0</version>"));
+            assertTrue(content.contains("<version>1.1</version>"));
+            resolver.close();
+        } finally {
+            for (Socket client : clients) {
+                client.close();
+            }
+        }
+    }
+
+    @Test
+    public void parallelMetadataSkipsTricklingRepository() throws Exception {
+        File remote1 = new File("target/" + UUID.randomUUID());
+        writeMetadata(new File(remote1, "org/ops4j/example/maven-metadata.xml"), "1.0");
+
+        // responds, but sends single byte every 100ms
+        List<Socket> clients = new ArrayList<>();
+        try (ServerSocket server = new ServerSocket(0)) {
+            Thread acceptor = new Thread(() -> {
+                try {
+                    while (true) {
+                        Socket client = server.accept();
+                        clients.add(client);
+                        Thread trickle = new Thread(() -> {
+                            try {
+                                BufferedReader reader = new BufferedReader(new InputStreamReader(client.getInputStream(), StandardCharsets.US_ASCII));
+                                String line;
+                                while ((line = reader.readLine()) != null && !line.isEmpty()) {
+                                    // request headers
+                                }
+                                OutputStream out = client.getOutputStream();
+                                out.write("HTTP/1.1 200 OK\r\nContent-Length: 100000\r\n\r\n".getBytes(StandardCharsets.US_ASCII));
+                                for (int i = 0; i < 100000; i++) {
+                                    out.write(' ');
+                                    out.flush();
+                                    Thread.sleep(100L);
+                                }
+                            } catch (IOException | InterruptedException ignored) {
+                            }
+                        });
+                        trickle.setDaemon(true);
+                        trickle.start();
+                    }
+                } catch (IOException ignored) {
+                }
+            });
+            acceptor.setDaemon(true);
+            acceptor.start();
+
+            Properties properties = new Properties();
+            properties.setProperty("pid.localRepository", "target/" + UUID.randomUUID().toString());
+            properties.setProperty("pid.repositories", remote1.toURI() + "@id=remote1,"
+                    + "http://localhost:" + server.getLocalPort() + "/repository@id=trickling");
+            properties.setProperty("pid.useFallbackRepositories", "false");
+            properties.setProperty("pid.parallelMetadata", "true");
+            properties.setProperty("pid.parallelMetadataTimeout", "1000");
+            properties.setProperty("pid.timeout", "30000");
+            AetherBasedResolver resolver = new AetherBasedResolver(new MavenConfigurationImpl(new PropertiesPropertyResolver(properties), "pid"));
+
+            long start = System.currentTimeMillis();
+            File metadata = resolver.resolveMetadata("org.ops4j", "example", "maven-metadata.xml", null);
+            assertTrue(System.currentTimeMillis() - start < 10000);
+            String content = new String(Files.readAllBytes(metadata.toPath()), StandardCharsets.UTF_8);
+            assertTrue(content.contains("<version>1.0</version>"));
+            resolver.close();
+        } finally {
+            for (Socket client : clients) {
+                client.close();
+            }
+        }
+    }
+
+    private static void writeMetadata(File file, String version) throws IOException {
+        file.getParentFile().mkdirs();
+        String metadata = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+                + "<metadata><groupId>org.ops4j</groupId><artifactId>example</artifactId><versioning>"
+                + "<release>" + version + "</release><versions><version>" + version + "</version></versions>"
+                + "</versioning></metadata>";
+        Files.write(file.toPath(), metadata.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private MavenConfigurationImpl basicMavenConfiguration(File... defaultRepositories) {
+        Properties properties = new Properties();
+        properties.setProperty("pid.localRepository", "target/" + UUID.randomUUID().toString());
+
+        StringBuilder sb = new StringBuilder();
+        int id = 0;
+        for (File repository : defaultRepositories) {
+            if (sb.length() > 0) {
+                sb.append(",");
+            }
+            sb.append(repository.toURI().toString()).append("@id=default").append(++id);
+        }
+        properties.setProperty("pid.defaultRepositories", sb.toString());
+        properties.setProperty("pid.repositories", "");
+        properties.setProperty("pid.useFallbackRepositories", "false");
+        properties.setProperty("pid.resolutionCacheSize", "0");
+        properties.setProperty("pid.parallelDefaultRepositories", "true");
+        properties.setProperty("pid.parallelThreads", "2");
+        return new MavenConfigurationImpl(new PropertiesPropertyResolver(properties), "pid");
+    }
+
+}
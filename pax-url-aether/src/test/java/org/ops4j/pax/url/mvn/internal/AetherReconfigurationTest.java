@@ -0,0 +1,85 @@
+/*
+ * Copyright 2023 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.url.mvn.internal;
+
+import java.io.File;
+import java.util.Properties;
+import java.util.UUID;
+
+import org.junit.Test;
+import org.ops4j.pax.url.mvn.internal.config.MavenConfigurationImpl;
+import org.ops4j.util.property.PropertiesPropertyResolver;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class AetherReconfigurationTest {
+
+    @Test
+    public void sessionsReusedForEquivalentConfiguration() throws Exception {
+        String localRepository = "target/" + UUID.randomUUID().toString();
+        Properties properties = basicProperties(localRepository);
+        AetherBasedResolver resolver1 = new AetherBasedResolver(configuration(properties));
+        assertTrue(resolver1.resolve("mvn:ant/ant/1.5.1").isFile());
+
+        // only the parallel resolution changed - sessions don't depend on it
+        properties.setProperty("pid.parallelDefaultRepositories", "true");
+        AetherBasedResolver resolver2 = new AetherBasedResolver(configuration(properties), null, resolver1);
+        assertSame(resolver1.getSessionPool(), resolver2.getSessionPool());
+        long created = resolver2.getSessionPool().getCreated();
+        resolver1.close();
+
+        // closing previous resolver doesn't affect the new one
+        assertTrue(resolver2.resolve("mvn:ant/ant/1.5.1").isFile());
+        assertEquals(created, resolver2.getSessionPool().getCreated());
+
+        properties.setProperty("pid.localRepository", "target/" + UUID.randomUUID().toString());
+        AetherBasedResolver resolver3 = new AetherBasedResolver(configuration(properties), null, resolver2);
+        assertNotSame(resolver2.getSessionPool(), resolver3.getSessionPool());
+        resolver2.close();
+        assertTrue(resolver3.resolve("mvn:ant/ant/1.5.1").isFile());
+        resolver3.close();
+    }
+
+    @Test
+    public void closedResolverNotReused() throws Exception {
+        Properties properties = basicProperties("target/" + UUID.randomUUID().toString());
+        AetherBasedResolver resolver1 = new AetherBasedResolver(configuration(properties));
+        resolver1.close();
+
+        AetherBasedResolver resolver2 = new AetherBasedResolver(configuration(properties), null, resolver1);
+        assertNotSame(resolver1.getSessionPool(), resolver2.getSessionPool());
+        assertTrue(resolver2.resolve("mvn:ant/ant/1.5.1").isFile());
+        resolver2.close();
+    }
+
+    private Properties basicProperties(String localRepository) {
+        Properties properties = new Properties();
+        properties.setProperty("pid.localRepository", localRepository);
+        File defaultRepository = new File("src/test/resources", "repo2"); // there should be ant:ant:1.5.1
+        properties.setProperty("pid.defaultRepositories", defaultRepository.toURI().toString() + "@id=my-repo2");
+        properties.setProperty("pid.repositories", "");
+        properties.setProperty("pid.useFallbackRepositories", "false");
+        return properties;
+    }
+
+    private MavenConfigurationImpl configuration(Properties properties) {
+        return new MavenConfigurationImpl(new PropertiesPropertyResolver(properties), "pid");
+    }
+
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright 2023 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.url.mvn.internal;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+import java.util.UUID;
+
+import org.junit.Test;
+import org.ops4j.pax.url.mvn.MavenResolver.Materialization;
+import org.ops4j.pax.url.mvn.internal.config.MavenConfigurationImpl;
+import org.ops4j.util.property.PropertiesPropertyResolver;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public class ArtifactMaterializerTest {
+
+    @Test
+    public void materializeResolvedArtifact() throws Exception {
+        Properties properties = new Properties();
+        properties.setProperty("pid.localRepository", "target/" + UUID.randomUUID().toString());
+        File defaultRepository = new File("src/test/resources", "repo2"); // there should be ant:ant:1.5.1
+        properties.setProperty("pid.defaultRepositories", defaultRepository.toURI().toString() + "@id=my-repo2");
+        properties.setProperty("pid.repositories", "");
+        properties.setProperty("pid.useFallbackRepositories", "false");
+        AetherBasedResolver resolver = new AetherBasedResolver(new MavenConfigurationImpl(new PropertiesPropertyResolver(properties), "pid"));
+
+        File source = resolver.resolve("mvn:ant/ant/1.5.1");
+        Path target = new File("target/materialized-" + UUID.randomUUID(), "bundles/ant.jar").toPath();
+        Materialization m1 = resolver.materialize("mvn:ant/ant/1.5.1", target);
+        assertNotNull(m1);
+        assertArrayEquals(Files.readAllBytes(source.toPath()), Files.readAllBytes(target));
+        if (m1 == Materialization.HARD_LINK) {
+            assertTrue(Files.isSameFile(source.toPath(), target));
+        }
+
+        // existing target is replaced and no temporary files are left
+        assertEquals(m1, resolver.materialize("mvn:ant/ant/1.5.1", target));
+        assertArrayEquals(Files.readAllBytes(source.toPath()), Files.readAllBytes(target));
+        assertEquals(1, target.getParent().toFile().list().length);
+
+        resolver.close();
+    }
+
+    @Test
+    public void transferCopy() throws Exception {
+        File dir = new File("target/materialized-" + UUID.randomUUID());
+        dir.mkdirs();
+        byte[] content = new byte[100000];
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte) i;
+        }
+        Path source = new File(dir, "source.jar").toPath();
+        Files.write(source, content);
+
+        Path target = new File(dir, "copy/target.jar").toPath();
+        Files.createDirectories(target.getParent());
+        new ArtifactMaterializer(false).copy(source, target);
+        assertArrayEquals(content, Files.readAllBytes(target));
+        assertFalse(Files.isSameFile(source, target));
+    }
+
+}
@@ -0,0 +1,161 @@
+/*
+ * Copyright 2023 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.url.mvn.internal;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Arrays;
+import java.util.Properties;
+import java.util.UUID;
+
+import org.junit.Test;
+import org.ops4j.pax.url.mvn.internal.config.MavenConfigurationImpl;
+import org.ops4j.util.property.PropertiesPropertyResolver;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class DefaultRepositoryIndexTest {
+
+    @Test
+    public void buildAndLoadIndex() throws IOException {
+        File basedir = new File("target/" + UUID.randomUUID());
+        File indexDirectory = new File("target/" + UUID.randomUUID());
+        assertTrue(new File(basedir, "g/a/1.0").mkdirs());
+        assertTrue(new File(basedir, "g/a/1.1").mkdirs());
+        Files.write(new File(basedir, "g/a/1.0/a-1.0.jar").toPath(), new byte[] { 0x42 });
+        age(basedir);
+
+        DefaultRepositoryIndex index = DefaultRepositoryIndex.load(basedir, indexDirectory);
+        assertTrue(index.isCurrent());
+        assertEquals(1, indexDirectory.list().length);
+        checkIndex(index);
+
+        // loaded from index file
+        index = DefaultRepositoryIndex.load(basedir, indexDirectory);
+        checkIndex(index);
+
+        assertTrue(new File(basedir, "h").mkdirs());
+        assertTrue(basedir.setLastModified(basedir.lastModified() + 2000L));
+        assertFalse(index.isCurrent());
+        index = DefaultRepositoryIndex.load(basedir, indexDirectory);
+        assertTrue(index.isDirectory("h"));
+        assertEquals(1, indexDirectory.list().length);
+    }
+
+    @Test
+    public void changesBelowBaseDirectory() throws IOException {
+        File basedir = new File("target/" + UUID.randomUUID());
+        File indexDirectory = new File("target/" + UUID.randomUUID());
+        assertTrue(new File(basedir, "g/a/1.0").mkdirs());
+        age(basedir);
+        long timestamp = basedir.lastModified();
+
+        DefaultRepositoryIndex index = DefaultRepositoryIndex.load(basedir, indexDirectory);
+        assertFalse(index.exists("g/a/1.1/a-1.1.jar"));
+        assertTrue(index.isIndexed("g/a"));
+
+        // deployed into existing groupId directory - base directory doesn't change
+        assertTrue(new File(basedir, "g/a/1.1").mkdirs());
+        Files.write(new File(basedir, "g/a/1.1/a-1.1.jar").toPath(), new byte[] { 0x42 });
+        assertEquals(timestamp, basedir.lastModified());
+        assertTrue("Changed directory should not be trusted", index.exists("g/a/1.1/a-1.1.jar"));
+        assertFalse(index.isIndexed("g/a"));
+        assertFalse(index.isCurrent());
+
+        // directories modified just before indexing are not trusted
+        index = DefaultRepositoryIndex.load(basedir, indexDirectory);
+        assertTrue(index.exists("g/a/1.1/a-1.1.jar"));
+        assertTrue(index.exists("g/a/1.1/a-1.2.jar"));
+        assertFalse(index.isIndexed("g/a"));
+    }
+
+    @Test
+    public void privateIndexDirectory() throws IOException {
+        File basedir = new File("target/" + UUID.randomUUID());
+        File indexDirectory = new File("target/" + UUID.randomUUID() + "/index");
+        assertTrue(new File(basedir, "g/a/1.0").mkdirs());
+        DefaultRepositoryIndex.load(basedir, indexDirectory);
+        if (FileSystems.getDefault().supportedFileAttributeViews().contains("posix")) {
+            assertEquals(PosixFilePermissions.fromString("rwx------"), Files.getPosixFilePermissions(indexDirectory.toPath()));
+
+            Files.setPosixFilePermissions(indexDirectory.toPath(), PosixFilePermissions.fromString("rwxrwxrwx"));
+            try {
+                DefaultRepositoryIndex.load(basedir, indexDirectory);
+                fail("Index directory writable by other users should not be used");
+            } catch (IOException expected) {
+            }
+        }
+    }
+
+    /**
+     * Sets modification time of all directories in the past, so they're not modified just before indexing.
+     */
+    private void age(File dir) {
+        File[] children = dir.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                if (child.isDirectory()) {
+                    age(child);
+                }
+            }
+        }
+        assertTrue(dir.setLastModified(System.currentTimeMillis() - 60000L));
+    }
+
+    private void checkIndex(DefaultRepositoryIndex index) {
+        assertTrue(index.isDirectory(""));
+        assertTrue(index.isDirectory("g/a"));
+        assertTrue(index.exists("g/a/1.0/a-1.0.jar"));
+        assertFalse(index.exists("g/a/1.1/a-1.1.jar"));
+        assertFalse(index.exists("g/b/1.0/b-1.0.jar"));
+        String[] versions = index.list("g/a");
+        Arrays.sort(versions);
+        assertArrayEquals(new String[] { "1.0", "1.1" }, versions);
+        assertNull(index.list("g/a/1.0/a-1.0.jar"));
+    }
+
+    @Test
+    public void resolveUsingIndex() throws IOException {
+        Properties properties = new Properties();
+        properties.setProperty("pid.localRepository", "target/" + UUID.randomUUID().toString());
+        File defaultRepository = new File("src/test/resources", "repo2"); // there should be ant:ant:1.5.1
+        properties.setProperty("pid.defaultRepositories", defaultRepository.toURI().toString() + "@id=my-repo2");
+        properties.setProperty("pid.repositories", "");
+        properties.setProperty("pid.useFallbackRepositories", "false");
+        properties.setProperty("pid.defaultRepositoryIndex", "true");
+        properties.setProperty("pid.defaultRepositoryIndexDirectory", "target/" + UUID.randomUUID().toString());
+        AetherBasedResolver resolver = new AetherBasedResolver(new MavenConfigurationImpl(new PropertiesPropertyResolver(properties), "pid"));
+
+        assertTrue(resolver.resolve("mvn:ant/ant/1.5.1").getCanonicalPath().endsWith("repo2/ant/ant/1.5.1/ant-1.5.1.jar"));
+        assertTrue(resolver.resolve("mvn:ant/ant/[1.5,1.6)").getCanonicalPath().endsWith("repo2/ant/ant/1.5.1/ant-1.5.1.jar"));
+        assertTrue(resolver.resolveAll(Arrays.asList("mvn:ant/ant/1.5.1")).get(0).getCanonicalPath().endsWith("repo2/ant/ant/1.5.1/ant-1.5.1.jar"));
+        try {
+            resolver.resolve("mvn:ant/ant/1.5.3");
+            fail("Should not resolve ant:ant:1.5.3");
+        } catch (IOException expected) {
+        }
+        resolver.close();
+    }
+
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright 2023 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.url.mvn.internal;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Properties;
+import java.util.UUID;
+
+import org.junit.Test;
+import org.ops4j.pax.url.mvn.Handler;
+import org.ops4j.pax.url.mvn.internal.config.MavenConfigurationImpl;
+import org.ops4j.util.property.PropertiesPropertyResolver;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class FileChannelInputStreamTest {
+
+    @Test
+    public void readAndTransfer() throws Exception {
+        byte[] content = new byte[100000];
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte) i;
+        }
+        File file = new File("target/" + UUID.randomUUID());
+        Files.write(file.toPath(), content);
+
+        try (FileChannelInputStream is = new FileChannelInputStream(file.toPath())) {
+            assertEquals(content.length, is.available());
+            assertEquals(0, is.read());
+            byte[] buffer = new byte[9];
+            assertEquals(9, is.read(buffer, 0, 9));
+            assertArrayEquals(Arrays.copyOfRange(content, 1, 10), buffer);
+            assertEquals(10, is.skip(10));
+
+            File target = new File("target/" + UUID.randomUUID());
+            try (FileOutputStream fos = new FileOutputStream(target)) {
+                assertEquals(content.length - 20, is.transferTo(fos));
+            }
+            assertArrayEquals(Arrays.copyOfRange(content, 20, content.length), Files.readAllBytes(target.toPath()));
+            assertEquals(-1, is.read());
+            assertEquals(0, is.available());
+        }
+
+        try (InputStream is = new FileChannelInputStream(file.toPath())) {
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            assertEquals(content.length, is.transferTo(baos));
+            assertArrayEquals(content, baos.toByteArray());
+        }
+    }
+
+    @Test
+    public void connectionExposesResolvedFile() throws Exception {
+        Properties properties = new Properties();
+        properties.setProperty("pid.localRepository", "target/" + UUID.randomUUID().toString());
+        File defaultRepository = new File("src/test/resources", "repo2"); // there should be ant:ant:1.5.1
+        properties.setProperty("pid.defaultRepositories", defaultRepository.toURI().toString() + "@id=my-repo2");
+        properties.setProperty("pid.repositories", "");
+        properties.setProperty("pid.useFallbackRepositories", "false");
+        AetherBasedResolver resolver = new AetherBasedResolver(new MavenConfigurationImpl(new PropertiesPropertyResolver(properties), "pid"));
+
+        Connection c = new Connection(new URL(null, "mvn:ant/ant/1.5.1", new Handler()), resolver);
+        File file = c.getFile();
+        assertTrue(file.getCanonicalPath().endsWith("repo2/ant/ant/1.5.1/ant-1.5.1.jar"));
+        assertEquals(file.toPath(), c.getPath());
+        try (InputStream is = c.getInputStream()) {
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            is.transferTo(baos);
+            assertArrayEquals(Files.readAllBytes(file.toPath()), baos.toByteArray());
+        }
+        resolver.close();
+    }
+
+}
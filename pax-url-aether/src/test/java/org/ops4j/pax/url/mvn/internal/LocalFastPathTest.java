@@ -0,0 +1,89 @@
+/*
+ * Copyright 2023 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.url.mvn.internal;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import java.util.UUID;
+
+import org.junit.Test;
+import org.ops4j.pax.url.mvn.internal.config.MavenConfigurationImpl;
+import org.ops4j.util.property.PropertiesPropertyResolver;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class LocalFastPathTest {
+
+    @Test
+    public void defaultRepository() throws Exception {
+        Properties properties = new Properties();
+        properties.setProperty("pid.localRepository", "target/" + UUID.randomUUID().toString());
+        File defaultRepository = new File("src/test/resources", "repo2"); // there should be ant:ant:1.5.1
+        properties.setProperty("pid.defaultRepositories", defaultRepository.toURI().toString() + "@id=my-repo2");
+        properties.setProperty("pid.repositories", "");
+        properties.setProperty("pid.localFastPath", "true");
+        AetherBasedResolver resolver = new AetherBasedResolver(new MavenConfigurationImpl(new PropertiesPropertyResolver(properties), "pid"));
+
+        File file = resolver.resolve("mvn:ant/ant/1.5.1");
+        assertTrue(file.getCanonicalPath().endsWith("repo2/ant/ant/1.5.1/ant-1.5.1.jar"));
+        List<File> files = resolver.resolveAll(Arrays.asList("mvn:ant/ant/1.5.1", "mvn:ant/ant/[1.5,1.6)"));
+        assertEquals(file.getCanonicalFile(), files.get(0).getCanonicalFile());
+        assertEquals(file.getCanonicalFile(), files.get(1).getCanonicalFile());
+        resolver.close();
+    }
+
+    @Test
+    public void downloadedArtifactsInOfflineMode() throws Exception {
+        File remote = new File("target/fast-path-remote-" + UUID.randomUUID());
+        File jar = new File(remote, "org/ops4j/example/1.0/example-1.0.jar");
+        jar.getParentFile().mkdirs();
+        Files.write(jar.toPath(), new byte[] { 0x42 });
+        File localRepository = new File("target/" + UUID.randomUUID());
+
+        Properties properties = new Properties();
+        properties.setProperty("pid.localRepository", localRepository.getPath());
+        properties.setProperty("pid.repositories", remote.toURI().toString() + "@id=remote");
+        properties.setProperty("pid.useFallbackRepositories", "false");
+        AetherBasedResolver resolver = new AetherBasedResolver(new MavenConfigurationImpl(new PropertiesPropertyResolver(properties), "pid"));
+        File downloaded = resolver.resolve("mvn:org.ops4j/example/1.0");
+        assertTrue(downloaded.toPath().startsWith(localRepository.toPath().toAbsolutePath()));
+        resolver.close();
+
+        // downloaded from configured repository
+        properties.setProperty("pid.offline", "true");
+        resolver = new AetherBasedResolver(new MavenConfigurationImpl(new PropertiesPropertyResolver(properties), "pid"));
+        assertEquals(downloaded, resolver.resolve("mvn:org.ops4j/example/1.0"));
+        assertEquals(downloaded, resolver.resolveAll(Arrays.asList("mvn:org.ops4j/example/1.0")).get(0));
+        resolver.close();
+
+        // downloaded from repository that's no longer configured - the file is not used, just as without fast path
+        properties.setProperty("pid.repositories", remote.toURI().toString() + "@id=other");
+        resolver = new AetherBasedResolver(new MavenConfigurationImpl(new PropertiesPropertyResolver(properties), "pid"));
+        try {
+            resolver.resolve("mvn:org.ops4j/example/1.0");
+            fail("Should not resolve artifact downloaded from other repository in offline mode");
+        } catch (IOException expected) {
+        }
+        resolver.close();
+    }
+
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2023 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.url.mvn.internal;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.aether.version.VersionConstraint;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class LocalVersionIndexTest {
+
+    @Test
+    public void parsedOnce() throws Exception {
+        LocalVersionIndex index = new LocalVersionIndex();
+        assertSame(index.version("1.2.3"), index.version("1.2.3"));
+        assertSame(index.constraint("[1,2)"), index.constraint("[1,2)"));
+    }
+
+    @Test
+    public void highestVersionInRange() throws Exception {
+        LocalVersionIndex index = new LocalVersionIndex();
+        AtomicInteger listings = new AtomicInteger();
+        String[][] content = { { "1.0", "1.10", "1.9", "2.0", "maven-metadata-local.xml" } };
+
+        VersionConstraint range = index.constraint("[1,2)");
+        assertEquals("1.10", index.highest("dir", 1L, () -> {
+            listings.incrementAndGet();
+            return content[0];
+        }, range).toString());
+        assertEquals("2.0", index.highest("dir", 1L, () -> {
+            listings.incrementAndGet();
+            return content[0];
+        }, index.constraint("[1,)")).toString());
+        // same stamp - directory is not listed again
+        assertEquals(1, listings.get());
+
+        content[0] = new String[] { "1.0", "1.9", "1.11", "2.0" };
+        assertEquals("1.11", index.highest("dir", 2L, () -> {
+            listings.incrementAndGet();
+            return content[0];
+        }, range).toString());
+        assertEquals(2, listings.get());
+
+        assertNull(index.highest("dir", 2L, () -> content[0], index.constraint("[3,4)")));
+        assertNull(index.highest("other", 1L, () -> null, range));
+    }
+
+    @Test
+    public void recentlyModifiedDirectoryListedAgain() throws Exception {
+        LocalVersionIndex index = new LocalVersionIndex();
+        VersionConstraint range = index.constraint("[1,2)");
+        String[][] content = { { "1.0" } };
+        long stamp = System.currentTimeMillis();
+
+        assertEquals("1.0", index.highest("dir", stamp, () -> content[0], range).toString());
+        // version directory created within the granularity of modification time - the stamp didn't change
+        content[0] = new String[] { "1.0", "1.1" };
+        assertEquals("1.1", index.highest("dir", stamp, () -> content[0], range).toString());
+    }
+
+    @Test
+    public void equalVersionsWithDifferentNames() throws Exception {
+        LocalVersionIndex index = new LocalVersionIndex();
+        VersionConstraint range = index.constraint("[1,2)");
+        assertEquals("1.1", index.highest("dir", 1L, () -> new String[] { "1.1", "1.1.0" }, range).toString());
+        // "1.1" removed, but equal "1.1.0" is still there
+        assertEquals("1.1.0", index.highest("dir", 2L, () -> new String[] { "1.1.0" }, range).toString());
+        assertNull(index.highest("dir", 3L, () -> new String[0], range));
+    }
+
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2023 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.url.mvn.internal;
+
+import java.net.MalformedURLException;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+public class MavenCoordinatesTest {
+
+    @Test
+    public void segments() throws MalformedURLException {
+        check("g/a", "g", "a", "LATEST", "jar", null);
+        check("g/a/", "g", "a", "LATEST", "jar", null);
+        check("g/a/1.0", "g", "a", "1.0", "jar", null);
+        check("g/a/1.0/xml", "g", "a", "1.0", "xml", null);
+        check("g/a/1.0/xml/features", "g", "a", "1.0", "xml", "features");
+        check("g/a/1.0/xml/features/ignored", "g", "a", "1.0", "xml", "features");
+        check("g/a//xml/features//", "g", "a", "LATEST", "xml", "features");
+        check("g/a/ /  /  ", "g", "a", "LATEST", "jar", null);
+        check("g/a/[1,2)/jar", "g", "a", "[1,2)", "jar", null);
+        check("jar:file:/tmp/repo.zip!/repository!g/a/1", "g", "a", "1", "jar", null);
+    }
+
+    @Test
+    public void invalidPaths() {
+        for (String path : new String[] { null, "", "g", "g/", "g//", "/a", " /a", "g/ ", "g/ /1", "!g/a", "http://repo!", "http://repo!g" }) {
+            try {
+                MavenCoordinates.parse(path);
+                fail("Should fail for \"" + path + "\"");
+            } catch (MalformedURLException expected) {
+            }
+        }
+    }
+
+    @Test
+    public void repositoryURL() throws MalformedURLException {
+        MavenCoordinates c = MavenCoordinates.parse("http://repository@id=fake!group/artifact/1.0");
+        assertEquals("fake", c.getRepositoryURL().getId());
+        assertEquals("http://repository/", c.getRepositoryURL().getURI().toString());
+        assertNull(MavenCoordinates.parse("group/artifact/1.0").getRepositoryURL());
+    }
+
+    @Test
+    public void interned() throws MalformedURLException {
+        MavenCoordinates c1 = MavenCoordinates.parse("org.ops4j.pax.url/pax-url-aether/3.0.0/xml/features");
+        MavenCoordinates c2 = MavenCoordinates.parse(new StringBuilder("org.ops4j.pax.url/")
+                .append("pax-url-aether/3.0.0/xml/features").toString());
+        assertSame(c1, c2);
+        assertSame(c1.getArtifact(), c2.getArtifact());
+        assertEquals("org.ops4j.pax.url:pax-url-aether:xml:features:3.0.0", c1.getArtifact().toString());
+    }
+
+    private void check(String path, String group, String artifact, String version, String type, String classifier)
+            throws MalformedURLException {
+        MavenCoordinates c = MavenCoordinates.parse(path);
+        assertEquals(group, c.getGroupId());
+        assertEquals(artifact, c.getArtifactId());
+        assertEquals(version, c.getVersion());
+        assertEquals(type, c.getType());
+        assertEquals(classifier, c.getClassifier());
+        assertEquals(group, c.getArtifact().getGroupId());
+        assertEquals(version, c.getArtifact().getVersion());
+    }
+
+}
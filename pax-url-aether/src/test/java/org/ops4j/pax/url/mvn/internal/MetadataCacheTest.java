@@ -0,0 +1,116 @@
+/*
+ * Copyright 2023 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.url.mvn.internal;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.Properties;
+import java.util.UUID;
+
+import org.junit.Test;
+import org.ops4j.pax.url.mvn.internal.config.MavenConfigurationImpl;
+import org.ops4j.util.property.PropertiesPropertyResolver;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class MetadataCacheTest {
+
+    @Test
+    public void changedSourceInvalidatesEntry() throws Exception {
+        File dir = new File("target/metadata-cache-" + UUID.randomUUID());
+        dir.mkdirs();
+        File merged = new File(dir, "merged.xml");
+        File source = new File(dir, "source.xml");
+        Files.write(merged.toPath(), new byte[] { 1 });
+
+        MetadataCache cache = new MetadataCache(10);
+        cache.put("k", merged, Collections.singletonList(source), System.currentTimeMillis() + 60000);
+        assertEquals(merged, cache.get("k"));
+
+        // source that didn't exist appeared
+        Files.write(source.toPath(), new byte[] { 2 });
+        assertNull(cache.get("k"));
+        assertEquals(0, cache.size());
+
+        cache.put("k", merged, Collections.singletonList(source), System.currentTimeMillis() + 60000);
+        assertEquals(merged, cache.get("k"));
+        assertTrue(source.setLastModified(source.lastModified() - 10000));
+        assertNull(cache.get("k"));
+
+        cache.put("k", merged, Collections.singletonList(source), System.currentTimeMillis() + 60000);
+        assertTrue(merged.delete());
+        assertNull(cache.get("k"));
+    }
+
+    @Test
+    public void expiredOrDisabled() throws Exception {
+        File merged = File.createTempFile("merged", ".xml", new File("target"));
+        MetadataCache cache = new MetadataCache(10);
+        cache.put("k", merged, Collections.emptyList(), System.currentTimeMillis());
+        assertNull(cache.get("k"));
+
+        cache = new MetadataCache(0);
+        cache.put("k", merged, Collections.emptyList(), ResolutionCache.NEVER);
+        assertNull(cache.get("k"));
+    }
+
+    @Test
+    public void resolverCachesMergedMetadata() throws Exception {
+        File remote = new File("target/metadata-remote-" + UUID.randomUUID());
+        File remoteMetadata = new File(remote, "org/ops4j/example/maven-metadata.xml");
+        writeMetadata(remoteMetadata, "1.0");
+        File localRepository = new File("target/" + UUID.randomUUID());
+
+        Properties properties = new Properties();
+        properties.setProperty("pid.localRepository", localRepository.getPath());
+        properties.setProperty("pid.repositories", remote.toURI().toString() + "@id=remote");
+        properties.setProperty("pid.useFallbackRepositories", "false");
+        AetherBasedResolver resolver = new AetherBasedResolver(new MavenConfigurationImpl(new PropertiesPropertyResolver(properties), "pid"));
+
+        File f1 = resolver.resolveMetadata("org.ops4j", "example", "maven-metadata.xml", null);
+        assertTrue(new String(Files.readAllBytes(f1.toPath()), StandardCharsets.UTF_8).contains("<version>1.0</version>"));
+
+        // remote repository is not checked again until update policy says so
+        writeMetadata(remoteMetadata, "1.1");
+        assertEquals(f1, resolver.resolveMetadata("org.ops4j", "example", "maven-metadata.xml", null));
+
+        // but changes in local repository are visible immediately
+        writeMetadata(new File(localRepository, "org/ops4j/example/maven-metadata-local.xml"), "2.0");
+        File f2 = resolver.resolveMetadata("org.ops4j", "example", "maven-metadata.xml", null);
+        assertNotEquals(f1, f2);
+        String content = new String(Files.readAllBytes(f2.toPath()), StandardCharsets.UTF_8);
+        assertTrue(content.contains("<version>2.0</version>"));
+        assertFalse(content.contains("<version>1.1</version>"));
+
+        resolver.close();
+    }
+
+    private static void writeMetadata(File file, String version) throws Exception {
+        file.getParentFile().mkdirs();
+        String metadata = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+                + "<metadata><groupId>org.ops4j</groupId><artifactId>example</artifactId><versioning>"
+                + "<release>" + version + "</release><versions><version>" + version + "</version></versions>"
+                + "</versioning></metadata>";
+        Files.write(file.toPath(), metadata.getBytes(StandardCharsets.UTF_8));
+    }
+
+}
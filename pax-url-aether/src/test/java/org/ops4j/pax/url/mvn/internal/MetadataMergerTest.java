@@ -0,0 +1,142 @@
+/*
+ * Copyright 2023 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.url.mvn.internal;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.util.Arrays;
+import java.util.UUID;
+
+import org.apache.maven.artifact.repository.metadata.Metadata;
+import org.apache.maven.artifact.repository.metadata.io.xpp3.MetadataXpp3Reader;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class MetadataMergerTest {
+
+    private static final String M1 = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+            + "<metadata><groupId>g</groupId><artifactId>a</artifactId><versioning>"
+            + "<latest>1.10</latest><release>1.10</release>"
+            + "<versions><version>1.0</version><version>1.10</version><version>1.2</version></versions>"
+            + "<lastUpdated>20230101000000</lastUpdated>"
+            + "</versioning></metadata>";
+
+    private static final String M2 = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+            + "<metadata><groupId>g</groupId><artifactId>a</artifactId><version>2.0-SNAPSHOT</version><versioning>"
+            + "<latest>2.0-SNAPSHOT</latest><release>1.9</release>"
+            + "<versions><version>1.2</version><version>2.0-SNAPSHOT</version><version>1.9</version></versions>"
+            + "<snapshotVersions>"
+            + "<snapshotVersion><extension>jar</extension><value>2.0-20230102.000000-2</value><updated>20230102000000</updated></snapshotVersion>"
+            + "<snapshotVersion><classifier>sources</classifier><extension>jar</extension><value>2.0-20230102.000000-2</value></snapshotVersion>"
+            + "</snapshotVersions>"
+            + "<lastUpdated>20230102000000</lastUpdated>"
+            + "</versioning></metadata>";
+
+    @Test
+    public void mergeVersions() throws Exception {
+        MetadataMerger merger = new MetadataMerger("g", "a");
+        assertFalse(merger.isMerged());
+        merger.merge(stream(M1));
+        merger.merge(stream(M2));
+        assertTrue(merger.isMerged());
+
+        Metadata metadata;
+        try (InputStream is = merger.openStream()) {
+            metadata = new MetadataXpp3Reader().read(is, false);
+        }
+        assertEquals("g", metadata.getGroupId());
+        assertEquals("a", metadata.getArtifactId());
+        assertEquals(Arrays.asList("1.0", "1.2", "1.9", "1.10", "2.0-SNAPSHOT"), metadata.getVersioning().getVersions());
+        assertEquals("2.0-SNAPSHOT", metadata.getVersioning().getLatest());
+        assertEquals("1.10", metadata.getVersioning().getRelease());
+        assertEquals("20230102000000", metadata.getVersioning().getLastUpdated());
+        assertEquals(2, metadata.getVersioning().getSnapshotVersions().size());
+        assertEquals("", metadata.getVersioning().getSnapshotVersions().get(0).getClassifier());
+        assertEquals("sources", metadata.getVersioning().getSnapshotVersions().get(1).getClassifier());
+        assertEquals("20230102000000", metadata.getVersioning().getSnapshotVersions().get(0).getUpdated());
+    }
+
+    @Test
+    public void fileNamedAfterContent() throws Exception {
+        File dir = new File("target/metadata-" + UUID.randomUUID());
+
+        MetadataMerger merger1 = new MetadataMerger("g", "a");
+        merger1.merge(stream(M1));
+        File f1 = merger1.toFile(dir);
+        MetadataMerger merger2 = new MetadataMerger("g", "a");
+        merger2.merge(stream(M1));
+        File f2 = merger2.toFile(dir);
+        assertEquals(f1, f2);
+        MetadataMerger merger3 = new MetadataMerger("g", "a");
+        merger3.merge(stream(M1));
+        merger3.merge(stream(M2));
+        assertFalse(f1.equals(merger3.toFile(dir)));
+
+        File[] files = dir.listFiles();
+        assertEquals(2, files == null ? 0 : files.length);
+    }
+
+    @Test
+    public void tamperedFileRewritten() throws Exception {
+        File dir = new File("target/metadata-" + UUID.randomUUID());
+        MetadataMerger merger = new MetadataMerger("g", "a");
+        merger.merge(stream(M1));
+        File f1 = merger.toFile(dir);
+        byte[] content = Files.readAllBytes(f1.toPath());
+
+        // same name and size, different content
+        byte[] tampered = content.clone();
+        tampered[tampered.length - 2] = 'x';
+        Files.write(f1.toPath(), tampered);
+        assertEquals(f1, merger.toFile(dir));
+        assertArrayEquals(content, Files.readAllBytes(f1.toPath()));
+    }
+
+    @Test
+    public void boundedPrivateDirectory() throws Exception {
+        MergedMetadataFiles files = new MergedMetadataFiles(2);
+        File[] written = new File[3];
+        for (int i = 0; i < written.length; i++) {
+            MetadataMerger merger = new MetadataMerger("g", "a");
+            merger.merge(stream(M1.replace("20230101000000", "2023010100000" + i)));
+            written[i] = files.write(merger);
+        }
+        File dir = written[0].getParentFile();
+        assertFalse("Least recently written file should be deleted", written[0].exists());
+        assertTrue(written[1].isFile());
+        assertTrue(written[2].isFile());
+        if (FileSystems.getDefault().supportedFileAttributeViews().contains("posix")) {
+            assertEquals(PosixFilePermissions.fromString("rwx------"), Files.getPosixFilePermissions(dir.toPath()));
+        }
+
+        files.close();
+        assertFalse(dir.exists());
+    }
+
+    private static InputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+}
@@ -334,6 +334,8 @@ public class MirrorTest {
 		} finally {
 			if (previous != null) {
 				System.setProperty(ServiceConstants.SYS_MAVEN_MIRROR_URL, previous);
+			} else {
+				System.clearProperty(ServiceConstants.SYS_MAVEN_MIRROR_URL);
 			}
 		}
 	}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2023 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.url.mvn.internal;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Properties;
+import java.util.UUID;
+
+import org.junit.Test;
+import org.ops4j.pax.url.mvn.internal.config.MavenConfigurationImpl;
+import org.ops4j.util.property.PropertiesPropertyResolver;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class MissingArtifactsCacheTest {
+
+    @Test
+    public void missInvalidatedByDirectoryChange() throws IOException {
+        File basedir = new File("target/" + UUID.randomUUID());
+        File versionDir = new File(basedir, "g/a/1.0");
+        assertTrue(versionDir.mkdirs());
+        assertTrue(versionDir.setLastModified(System.currentTimeMillis() - 60000L));
+        assertTrue(new File(basedir, "g/a").setLastModified(System.currentTimeMillis() - 60000L));
+
+        MissingArtifactsCache cache = new MissingArtifactsCache(60000L);
+        cache.missing(basedir, "g:a:jar:1.0", new File(versionDir, "a-1.0.jar"));
+        assertTrue(cache.isMissing(basedir, "g:a:jar:1.0"));
+        assertFalse(cache.isMissing(basedir, "g:a:jar:1.1"));
+
+        Files.write(new File(versionDir, "a-1.0.jar").toPath(), new byte[] { 0x42 });
+        // make sure the modification is visible even with coarse timestamps
+        assertTrue(versionDir.setLastModified(versionDir.lastModified() + 2000L));
+        assertFalse(cache.isMissing(basedir, "g:a:jar:1.0"));
+
+        MissingArtifactsCache disabled = new MissingArtifactsCache(0L);
+        disabled.missing(basedir, "g:a:jar:2.0", new File(basedir, "g/a/2.0/a-2.0.jar"));
+        assertFalse(disabled.isMissing(basedir, "g:a:jar:2.0"));
+    }
+
+    @Test
+    public void missInRecentlyModifiedDirectoryNotRemembered() throws IOException {
+        File basedir = new File("target/" + UUID.randomUUID());
+        File versionDir = new File(basedir, "g/a/1.0");
+        assertTrue(versionDir.mkdirs());
+        long created = versionDir.lastModified();
+
+        MissingArtifactsCache cache = new MissingArtifactsCache(60000L);
+        cache.missing(basedir, "g:a:jar:1.0", new File(versionDir, "a-1.0.jar"));
+
+        // directory recreated with the artifact within the same tick - modification time doesn't change
+        Files.delete(versionDir.toPath());
+        assertTrue(versionDir.mkdirs());
+        Files.write(new File(versionDir, "a-1.0.jar").toPath(), new byte[] { 0x42 });
+        assertTrue(versionDir.setLastModified(created));
+        assertFalse(cache.isMissing(basedir, "g:a:jar:1.0"));
+    }
+
+    @Test
+    public void artifactAddedToDefaultRepositoryAfterMiss() throws IOException {
+        File basedir = new File("target/" + UUID.randomUUID());
+        File versionDir = new File(basedir, "ant/ant/1.5.1");
+        assertTrue(versionDir.mkdirs());
+
+        Properties properties = new Properties();
+        properties.setProperty("pid.localRepository", "target/" + UUID.randomUUID().toString());
+        properties.setProperty("pid.defaultRepositories", basedir.toURI().toString() + "@id=default");
+        properties.setProperty("pid.repositories", "");
+        properties.setProperty("pid.useFallbackRepositories", "false");
+        properties.setProperty("pid.resolutionCacheSize", "0");
+        AetherBasedResolver resolver = new AetherBasedResolver(new MavenConfigurationImpl(new PropertiesPropertyResolver(properties), "pid"));
+
+        try {
+            resolver.resolve("mvn:ant/ant/1.5.1");
+            fail("Should not resolve ant:ant:1.5.1");
+        } catch (IOException expected) {
+        }
+
+        File jar = new File(versionDir, "ant-1.5.1.jar");
+        Files.copy(new File("src/test/resources/repo2/ant/ant/1.5.1/ant-1.5.1.jar").toPath(), jar.toPath());
+        assertTrue(versionDir.setLastModified(versionDir.lastModified() + 2000L));
+
+        assertEquals(jar.getCanonicalFile(), resolver.resolve("mvn:ant/ant/1.5.1").getCanonicalFile());
+        resolver.close();
+    }
+
+}
@@ -56,6 +56,8 @@ public class RegistrationTest {
         Capture<Dictionary<String, Object>> registrationProperties = Capture.newInstance();
         expect(context.registerService(same("org.ops4j.pax.url.mvn.MavenResolver"),
                 anyObject(), capture(registrationProperties))).andReturn(null);
+        expect(context.registerService(same("org.ops4j.pax.url.mvn.MavenResolverMetrics"),
+                anyObject(), anyObject(Dictionary.class))).andReturn(null);
 
         replay(context);
 
@@ -106,6 +108,8 @@ public class RegistrationTest {
         Capture<Dictionary<String, Object>> registrationProperties = Capture.newInstance();
         expect(context.registerService(same("org.ops4j.pax.url.mvn.MavenResolver"),
                 anyObject(), capture(registrationProperties))).andReturn(null);
+        expect(context.registerService(same("org.ops4j.pax.url.mvn.MavenResolverMetrics"),
+                anyObject(), anyObject(Dictionary.class))).andReturn(null);
 
         replay(context);
 
@@ -0,0 +1,167 @@
+/*
+ * Copyright 2023 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.url.mvn.internal;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.eclipse.aether.DefaultRepositorySystemSession;
+import org.eclipse.aether.artifact.DefaultArtifact;
+import org.eclipse.aether.repository.RemoteRepository;
+import org.eclipse.aether.transfer.ArtifactNotFoundException;
+import org.eclipse.aether.transfer.TransferEvent;
+import org.eclipse.aether.transfer.TransferResource;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class RepositoryOrderingTest {
+
+    private final DefaultRepositorySystemSession session = new DefaultRepositorySystemSession();
+
+    private final RemoteRepository r1 = new RemoteRepository.Builder("r1", "default", "https://r1.example.com/").build();
+    private final RemoteRepository r2 = new RemoteRepository.Builder("r2", "default", "https://r2.example.com/").build();
+    private final RemoteRepository r3 = new RemoteRepository.Builder("r3", "default", "https://r3.example.com/").build();
+    private final List<RemoteRepository> repositories = Arrays.asList(r1, r2, r3);
+
+    private final DefaultArtifact commons = new DefaultArtifact("commons-io:commons-io:2.11.0");
+    private final DefaultArtifact ops4j = new DefaultArtifact("org.ops4j.pax.url:pax-url-aether:2.6.14");
+
+    @Test
+    public void configuredOrderWithoutStatistics() {
+        RepositoryOrdering ordering = new RepositoryOrdering();
+        assertSame(repositories, ordering.order(repositories, commons, Collections.emptySet()));
+
+        // r3 has no statistics yet
+        for (int i = 0; i < 10; i++) {
+            transfer(ordering, "r1", "commons-io/commons-io/2.11.0/commons-io-2.11.0.jar", false);
+            transfer(ordering, "r2", "commons-io/commons-io/2.11.0/commons-io-2.11.0.jar", true);
+        }
+        assertSame(repositories, ordering.order(repositories, commons, Collections.emptySet()));
+    }
+
+    @Test
+    public void orderByHitRate() {
+        RepositoryOrdering ordering = new RepositoryOrdering();
+        for (int i = 0; i < 10; i++) {
+            transfer(ordering, "r1", "commons-io/commons-io/2.11.0/commons-io-2.11.0.jar", false);
+            transfer(ordering, "r2", "commons-io/commons-io/2.11.0/commons-io-2.11.0.jar", i % 2 == 0);
+            transfer(ordering, "r3", "commons-io/commons-io/2.11.0/commons-io-2.11.0.jar", true);
+            // metadata and checksums don't count
+            transfer(ordering, "r1", "commons-io/commons-io/maven-metadata.xml", true);
+            transfer(ordering, "r1", "commons-io/commons-io/2.11.0/commons-io-2.11.0.jar.sha1", true);
+        }
+        assertEquals(Arrays.asList(r3, r2, r1), ordering.order(repositories, commons, Collections.emptySet()));
+
+        // pinned repository keeps its priority
+        assertEquals(Arrays.asList(r1, r3, r2), ordering.order(repositories, commons, Collections.singleton("r1")));
+    }
+
+    @Test
+    public void orderByPrefix() {
+        RepositoryOrdering ordering = new RepositoryOrdering();
+        for (int i = 0; i < 10; i++) {
+            transfer(ordering, "r1", "commons-io/commons-io/2.11.0/commons-io-2.11.0.jar", false);
+            transfer(ordering, "r2", "commons-io/commons-io/2.11.0/commons-io-2.11.0.jar", true);
+            transfer(ordering, "r3", "commons-io/commons-io/2.11.0/commons-io-2.11.0.jar", true);
+        }
+        for (int i = 0; i < 5; i++) {
+            transfer(ordering, "r1", "org/ops4j/pax/url/pax-url-aether/2.6.14/pax-url-aether-2.6.14.jar", true);
+            transfer(ordering, "r2", "org/ops4j/pax/url/pax-url-aether/2.6.14/pax-url-aether-2.6.14.jar", false);
+            transfer(ordering, "r3", "org/ops4j/pax/url/pax-url-aether/2.6.14/pax-url-aether-2.6.14.jar", false);
+        }
+        // r1 usually misses, but has org.ops4j artifacts
+        assertEquals(Arrays.asList(r2, r3, r1), ordering.order(repositories, commons, Collections.emptySet()));
+        assertEquals(r1, ordering.order(repositories, ops4j, Collections.emptySet()).get(0));
+    }
+
+    @Test
+    public void orderByLatency() throws Exception {
+        RepositoryOrdering ordering = new RepositoryOrdering();
+        for (int i = 0; i < 5; i++) {
+            transfer(ordering, "r1", "commons-io/commons-io/2.11.0/commons-io-2.11.0.jar", false, 30L);
+            transfer(ordering, "r2", "commons-io/commons-io/2.11.0/commons-io-2.11.0.jar", false);
+            transfer(ordering, "r3", "commons-io/commons-io/2.11.0/commons-io-2.11.0.jar", false, 30L);
+        }
+        assertEquals(r2, ordering.order(repositories, commons, Collections.emptySet()).get(0));
+    }
+
+    @Test
+    public void hitsAndMissesComparedByResponseTime() throws Exception {
+        RepositoryOrdering ordering = new RepositoryOrdering();
+        for (int i = 0; i < 5; i++) {
+            // r1 always has the artifact and responds quickly, but the download takes long
+            transfer(ordering, "r1", "commons-io/commons-io/2.11.0/commons-io-2.11.0.jar", true, 0L, 40L);
+            transfer(ordering, "r2", "commons-io/commons-io/2.11.0/commons-io-2.11.0.jar", i % 2 == 0, 20L, 0L);
+            transfer(ordering, "r3", "commons-io/commons-io/2.11.0/commons-io-2.11.0.jar", false, 20L, 0L);
+        }
+        assertEquals(r1, ordering.order(repositories, commons, Collections.emptySet()).get(0));
+    }
+
+    @Test
+    public void explorationKeepsConfiguredOrder() {
+        RepositoryOrdering ordering = new RepositoryOrdering();
+        for (int i = 0; i < 10; i++) {
+            transfer(ordering, "r1", "commons-io/commons-io/2.11.0/commons-io-2.11.0.jar", false);
+            transfer(ordering, "r2", "commons-io/commons-io/2.11.0/commons-io-2.11.0.jar", false);
+            transfer(ordering, "r3", "commons-io/commons-io/2.11.0/commons-io-2.11.0.jar", true);
+        }
+        int configured = 0;
+        for (int i = 0; i < 20; i++) {
+            if (ordering.order(repositories, commons, Collections.emptySet()).equals(repositories)) {
+                configured++;
+            }
+        }
+        // r1 and r2 still get a chance to update their statistics
+        assertEquals(2, configured);
+    }
+
+    private void transfer(RepositoryOrdering ordering, String id, String name, boolean found) {
+        try {
+            transfer(ordering, id, name, found, 0L);
+        } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private void transfer(RepositoryOrdering ordering, String id, String name, boolean found, long latency)
+            throws InterruptedException {
+        transfer(ordering, id, name, found, latency, 0L);
+    }
+
+    private void transfer(RepositoryOrdering ordering, String id, String name, boolean found, long latency,
+            long download) throws InterruptedException {
+        TransferResource resource = new TransferResource(id, "https://" + id + ".example.com/", name, null, null);
+        if (latency > 0L) {
+            Thread.sleep(latency);
+        }
+        TransferEvent.Builder builder = new TransferEvent.Builder(session, resource)
+                .setRequestType(TransferEvent.RequestType.GET);
+        if (found) {
+            ordering.transferStarted(builder.setType(TransferEvent.EventType.STARTED).build());
+            if (download > 0L) {
+                Thread.sleep(download);
+            }
+            ordering.transferSucceeded(builder.setType(TransferEvent.EventType.SUCCEEDED).build());
+        } else {
+            ordering.transferFailed(builder.setType(TransferEvent.EventType.FAILED)
+                    .setException(new ArtifactNotFoundException(new DefaultArtifact("g:a:1"), null)).build());
+        }
+    }
+
+}
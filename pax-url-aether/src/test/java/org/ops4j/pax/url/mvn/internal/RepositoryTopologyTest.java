@@ -0,0 +1,101 @@
+/*
+ * Copyright 2023 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.url.mvn.internal;
+
+import java.io.File;
+import java.util.List;
+import java.util.Properties;
+import java.util.UUID;
+
+import org.eclipse.aether.repository.RemoteRepository;
+import org.junit.Test;
+import org.ops4j.pax.url.mvn.internal.config.MavenConfigurationImpl;
+import org.ops4j.util.property.PropertiesPropertyResolver;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+public class RepositoryTopologyTest {
+
+    @Test
+    public void topologyRefreshedWhenMultiDirectoryChanges() throws Exception {
+        File multi = multiDirectory();
+        AetherBasedResolver resolver = resolver(multi, false);
+
+        List<RemoteRepository> repositories = resolver.selectRemoteRepositories(null);
+        assertEquals(3, repositories.size());
+        assertEquals("r1", repositories.get(0).getId());
+        assertEquals("r2", repositories.get(1).getId());
+        assertEquals("central", repositories.get(2).getId());
+        assertSame("Repositories should not be created again", repositories, resolver.selectRemoteRepositories(null));
+
+        new File(multi, "r0").mkdirs();
+        List<RemoteRepository> refreshed = resolver.selectRemoteRepositories(null);
+        assertNotSame(repositories, refreshed);
+        assertEquals(4, refreshed.size());
+        assertEquals("r0", refreshed.get(0).getId());
+
+        // extra repository from mvn: URI is added to the current list
+        MavenCoordinates coordinates = MavenCoordinates.parse("https://example.com/repo@id=extra!g/a/1.0");
+        List<RemoteRepository> extra = resolver.selectRemoteRepositories(coordinates.getRepositoryURL());
+        assertEquals(5, extra.size());
+        assertEquals("extra", extra.get(4).getId());
+
+        resolver.close();
+    }
+
+    @Test
+    public void topologyRefreshedByWatcher() throws Exception {
+        File multi = multiDirectory();
+        AetherBasedResolver resolver = resolver(multi, true);
+
+        List<RemoteRepository> repositories = resolver.selectRemoteRepositories(null);
+        assertEquals(3, repositories.size());
+        assertSame("Repositories should not be created again", repositories, resolver.selectRemoteRepositories(null));
+
+        new File(multi, "r3").mkdirs();
+        List<RemoteRepository> refreshed = repositories;
+        long end = System.currentTimeMillis() + 10000L;
+        while (refreshed == repositories && System.currentTimeMillis() < end) {
+            Thread.sleep(20L);
+            refreshed = resolver.selectRemoteRepositories(null);
+        }
+        assertEquals(4, refreshed.size());
+        assertEquals("r3", refreshed.get(2).getId());
+
+        resolver.close();
+    }
+
+    private File multiDirectory() {
+        File multi = new File("target/multi-" + UUID.randomUUID());
+        new File(multi, "r1").mkdirs();
+        new File(multi, "r2").mkdirs();
+        multi.setLastModified(System.currentTimeMillis() - 60000L);
+        return multi;
+    }
+
+    private AetherBasedResolver resolver(File multi, boolean watch) {
+        Properties properties = new Properties();
+        properties.setProperty("pid.localRepository", "target/" + UUID.randomUUID());
+        properties.setProperty("pid.repositories", multi.toURI() + "@multi,"
+                + "https://repo1.maven.org/maven2@id=central");
+        properties.setProperty("pid.useFallbackRepositories", "false");
+        properties.setProperty("pid.watchMultiDirectories", Boolean.toString(watch));
+        return new AetherBasedResolver(new MavenConfigurationImpl(new PropertiesPropertyResolver(properties), "pid"));
+    }
+
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright 2023 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.url.mvn.internal;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class ResolutionCacheTest {
+
+    @Test
+    public void evictionAndInvalidation() throws IOException {
+        File dir = new File("target/resolution-cache");
+        dir.mkdirs();
+        File f1 = new File(dir, "a1.jar");
+        File f2 = new File(dir, "a2.jar");
+        File f3 = new File(dir, "a3.jar");
+        Files.write(f1.toPath(), new byte[] { 0x42 });
+        Files.write(f2.toPath(), new byte[] { 0x42 });
+        Files.write(f3.toPath(), new byte[] { 0x42 });
+
+        ResolutionCache cache = new ResolutionCache(2);
+        cache.put("a1", f1, ResolutionCache.NEVER);
+        cache.put("a2", f2, ResolutionCache.NEVER);
+        assertEquals(f1, cache.get("a1"));
+        // a2 is least recently used now
+        cache.put("a3", f3, ResolutionCache.NEVER);
+        assertEquals(2, cache.size());
+        assertNull(cache.get("a2"));
+        assertEquals(f1, cache.get("a1"));
+
+        assertTrue(f3.delete());
+        assertNull(cache.get("a3"));
+
+        cache.put("a2", f2, System.currentTimeMillis() - 1);
+        assertNull(cache.get("a2"));
+
+        new ResolutionCache(0).put("a1", f1, ResolutionCache.NEVER);
+        assertNull(new ResolutionCache(0).get("a1"));
+    }
+
+    @Test
+    public void expirationFromUpdatePolicy() {
+        long now = System.currentTimeMillis();
+        assertEquals(ResolutionCache.NEVER, ResolutionCache.expiration("never", now));
+        assertEquals(now, ResolutionCache.expiration("always", now));
+        assertEquals(now + TimeUnit.MINUTES.toMillis(15), ResolutionCache.expiration("interval:15", now));
+        long daily = ResolutionCache.expiration("daily", now);
+        assertTrue(daily > now && daily <= now + TimeUnit.HOURS.toMillis(25));
+    }
+
+}
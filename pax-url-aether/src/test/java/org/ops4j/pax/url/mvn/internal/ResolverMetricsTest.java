@@ -0,0 +1,157 @@
+/*
+ * Copyright 2023 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.url.mvn.internal;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.Properties;
+import java.util.UUID;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.StandardMBean;
+import javax.management.openmbean.CompositeData;
+import javax.management.openmbean.TabularData;
+
+import org.junit.Test;
+import org.ops4j.pax.url.mvn.MavenResolverMetrics;
+import org.ops4j.pax.url.mvn.internal.config.MavenConfigurationImpl;
+import org.ops4j.util.property.PropertiesPropertyResolver;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ResolverMetricsTest {
+
+    @Test
+    public void histogramPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long v = 1; v <= 1000; v++) {
+            histogram.record(v * 1000L);
+        }
+        assertEquals(1000, histogram.getCount());
+        assertEquals(1000000L, histogram.getMax());
+        assertEquals(500500L, histogram.getMean());
+        long p50 = histogram.getPercentile(50.0);
+        long p99 = histogram.getPercentile(99.0);
+        assertTrue(p50 >= 500000L && p50 <= 500000L * 9 / 8);
+        assertTrue(p99 >= 990000L && p99 <= 1000000L);
+        assertEquals(1000000L, histogram.getPercentile(100.0));
+
+        for (long v = 0; v < 100000; v += 7) {
+            long highest = LatencyHistogram.highestEquivalent(LatencyHistogram.index(v));
+            assertTrue(highest >= v && highest - v <= v / LatencyHistogram.SUB_BUCKETS);
+        }
+        assertEquals(Long.MAX_VALUE, LatencyHistogram.highestEquivalent(LatencyHistogram.index(Long.MAX_VALUE)));
+    }
+
+    @Test
+    public void resolverStages() throws Exception {
+        Properties properties = new Properties();
+        properties.setProperty("pid.localRepository", "target/" + UUID.randomUUID().toString());
+        File defaultRepository = new File("src/test/resources", "repo2"); // there should be ant:ant:1.5.1
+        properties.setProperty("pid.defaultRepositories", defaultRepository.toURI().toString() + "@id=my-repo2");
+        properties.setProperty("pid.repositories", "");
+        properties.setProperty("pid.useFallbackRepositories", "false");
+        AetherBasedResolver resolver = new AetherBasedResolver(new MavenConfigurationImpl(new PropertiesPropertyResolver(properties), "pid"));
+
+        resolver.resolve("mvn:ant/ant/1.5.1");
+        resolver.resolve("mvn:ant/ant/1.5.1");
+        resolver.resolveMetadata("ant", "ant", "maven-metadata.xml", null);
+
+        MavenResolverMetrics metrics = resolver.getMetrics();
+        Map<String, MavenResolverMetrics.Timer> timers = metrics.getTimers();
+        assertEquals(2, timers.get("selectDefaultRepositories").getCount());
+        assertEquals(1, timers.get("defaultRepositories").getCount());
+        assertEquals(1, timers.get("defaultRepository.my-repo2").getCount());
+        assertEquals(1, timers.get("metadata").getCount());
+        assertEquals(Long.valueOf(1), metrics.getCounters().get("resolutionCache.hits"));
+        assertNotNull(metrics.getCounters().get("sessionPool.borrowed"));
+
+        // next resolver continues with the same metrics
+        AetherBasedResolver next = new AetherBasedResolver(new MavenConfigurationImpl(new PropertiesPropertyResolver(properties), "pid"), null, resolver);
+        resolver.close();
+        assertSame(metrics, next.getMetrics());
+        next.close();
+
+        // MXBean view
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName(MavenResolverMetrics.OBJECT_NAME + ",name=" + UUID.randomUUID());
+        server.registerMBean(new StandardMBean(metrics, MavenResolverMetrics.class, true), name);
+        try {
+            TabularData data = (TabularData) server.getAttribute(name, "Timers");
+            CompositeData row = data.get(new Object[] { "metadata" });
+            CompositeData timer = (CompositeData) row.get("value");
+            assertEquals(1L, timer.get("count"));
+            server.invoke(name, "reset", null, null);
+            assertTrue(metrics.getTimers().isEmpty());
+        } finally {
+            server.unregisterMBean(name);
+        }
+    }
+
+    @Test
+    public void transferStatistics() throws Exception {
+        File remote = new File("target/transfers-remote-" + UUID.randomUUID());
+        File jar = new File(remote, "org/ops4j/example/1.0/example-1.0.jar");
+        jar.getParentFile().mkdirs();
+        Files.write(jar.toPath(), new byte[1024]);
+        StringBuilder sha1 = new StringBuilder();
+        for (byte b : MessageDigest.getInstance("SHA-1").digest(new byte[1024])) {
+            sha1.append(String.format("%02x", b));
+        }
+        Files.write(new File(jar.getPath() + ".sha1").toPath(), sha1.toString().getBytes(StandardCharsets.US_ASCII));
+        File corrupted = new File(remote, "org/ops4j/example/1.1/example-1.1.jar");
+        corrupted.getParentFile().mkdirs();
+        Files.write(corrupted.toPath(), new byte[1024]);
+        Files.write(new File(corrupted.getPath() + ".sha1").toPath(), "0000".getBytes(StandardCharsets.US_ASCII));
+
+        Properties properties = new Properties();
+        properties.setProperty("pid.localRepository", "target/" + UUID.randomUUID().toString());
+        properties.setProperty("pid.repositories", remote.toURI().toString() + "@id=remote");
+        properties.setProperty("pid.useFallbackRepositories", "false");
+        properties.setProperty("pid.globalChecksumPolicy", "fail");
+        AetherBasedResolver resolver = new AetherBasedResolver(new MavenConfigurationImpl(new PropertiesPropertyResolver(properties), "pid"));
+
+        resolver.resolve("mvn:org.ops4j/example/1.0");
+        try {
+            resolver.resolve("mvn:org.ops4j/example/2.0");
+            fail("Should not resolve missing artifact");
+        } catch (IOException expected) {
+        }
+        try {
+            resolver.resolve("mvn:org.ops4j/example/1.1");
+            fail("Should not resolve artifact with wrong checksum");
+        } catch (IOException expected) {
+        }
+
+        MavenResolverMetrics.Transfers transfers = resolver.getMetrics().getTransfers().get("remote");
+        assertEquals(1, transfers.getSucceeded());
+        assertEquals(1024, transfers.getBytes());
+        assertEquals(1, transfers.getNotFound());
+        assertTrue(transfers.getChecksumFailures() >= 1);
+        assertTrue(transfers.getFailed() >= 1);
+        resolver.close();
+    }
+
+}
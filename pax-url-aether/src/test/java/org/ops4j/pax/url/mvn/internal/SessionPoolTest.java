@@ -0,0 +1,136 @@
+/*
+ * Copyright 2023 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.url.mvn.internal;
+
+import java.io.File;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.eclipse.aether.RepositorySystemSession;
+import org.junit.Test;
+import org.ops4j.pax.url.mvn.internal.config.MavenConfigurationImpl;
+import org.ops4j.util.property.PropertiesPropertyResolver;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class SessionPoolTest {
+
+    @Test
+    public void pooledSessions() throws Exception {
+        AetherBasedResolver resolver = new AetherBasedResolver(basicMavenConfiguration("60000"));
+        SessionPool pool = resolver.getSessionPool();
+
+        // warm-up for default and local repository
+        assertEquals(2, pool.getCreated());
+        assertEquals(2, pool.getIdle());
+
+        for (int i = 0; i < 3; i++) {
+            assertTrue(resolver.resolve("mvn:ant/ant/1.5.1").getCanonicalPath().endsWith("repo2/ant/ant/1.5.1/ant-1.5.1.jar"));
+        }
+        assertEquals(2, pool.getCreated());
+        assertEquals(3, pool.getBorrowed());
+        assertEquals(0, pool.getWaited());
+
+        AetherBasedResolver.LocalRepositoryWithConfig repo = resolver.selectDefaultRepositories().get(0);
+        RepositorySystemSession s1 = pool.borrow(repo);
+        RepositorySystemSession s2 = pool.borrow(repo);
+        // max=2, so third session is created outside of the pool after waiting
+        RepositorySystemSession s3 = pool.borrow(repo);
+        assertEquals(1, pool.getWaited());
+        assertEquals(4, pool.getCreated());
+        assertNotSame(s1, s2);
+        pool.release(s3);
+        pool.release(s2);
+        pool.release(s1);
+        assertSame(s1, pool.borrow(repo));
+
+        resolver.close();
+    }
+
+    @Test
+    public void overflowSessionsBounded() throws Exception {
+        AetherBasedResolver resolver = new AetherBasedResolver(basicMavenConfiguration("60000"));
+        SessionPool pool = resolver.getSessionPool();
+        AetherBasedResolver.LocalRepositoryWithConfig repo = resolver.selectDefaultRepositories().get(0);
+
+        // max=2 pooled and max=2 overflow sessions
+        RepositorySystemSession s1 = pool.borrow(repo);
+        RepositorySystemSession s2 = pool.borrow(repo);
+        RepositorySystemSession s3 = pool.borrow(repo);
+        RepositorySystemSession s4 = pool.borrow(repo);
+        long created = pool.getCreated();
+
+        AtomicReference<RepositorySystemSession> s5 = new AtomicReference<>();
+        Thread t = new Thread(() -> s5.set(pool.borrow(repo)));
+        t.start();
+        t.join(300);
+        assertTrue("No more sessions should be created", t.isAlive());
+        assertEquals(created, pool.getCreated());
+
+        // released overflow session allows new one to be created
+        pool.release(s3);
+        t.join(5000);
+        assertNotNull(s5.get());
+        assertEquals(created + 1, pool.getCreated());
+
+        pool.release(s5.get());
+        pool.release(s4);
+        pool.release(s2);
+        pool.release(s1);
+        resolver.close();
+    }
+
+    @Test
+    public void idleSessionsEvicted() throws Exception {
+        AetherBasedResolver resolver = new AetherBasedResolver(basicMavenConfiguration("100"));
+        SessionPool pool = resolver.getSessionPool();
+        AetherBasedResolver.LocalRepositoryWithConfig repo = resolver.selectDefaultRepositories().get(0);
+
+        RepositorySystemSession s1 = pool.borrow(repo);
+        RepositorySystemSession s2 = pool.borrow(repo);
+        pool.release(s1);
+        pool.release(s2);
+        assertEquals(3, pool.getIdle());
+
+        Thread.sleep(300);
+        pool.release(pool.borrow(repo));
+        // only min=1 session per repository is kept
+        assertEquals(2, pool.getEvicted());
+        assertEquals(1, pool.getIdle());
+        resolver.close();
+    }
+
+    private MavenConfigurationImpl basicMavenConfiguration(String idleTimeout) {
+        Properties properties = new Properties();
+        properties.setProperty("pid.localRepository", "target/" + UUID.randomUUID().toString());
+        File defaultRepository = new File("src/test/resources", "repo2"); // there should be ant:ant:1.5.1
+        properties.setProperty("pid.defaultRepositories", defaultRepository.toURI().toString() + "@id=my-repo2");
+        properties.setProperty("pid.repositories", "");
+        properties.setProperty("pid.useFallbackRepositories", "false");
+        properties.setProperty("pid.resolutionCacheSize", "0");
+        properties.setProperty("pid.sessionPool.min", "1");
+        properties.setProperty("pid.sessionPool.max", "2");
+        properties.setProperty("pid.sessionPool.maxWait", "50");
+        properties.setProperty("pid.sessionPool.idleTimeout", idleTimeout);
+        return new MavenConfigurationImpl(new PropertiesPropertyResolver(properties), "pid");
+    }
+
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2023 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.url.mvn.internal;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class SingleFlightTest {
+
+    @Test
+    public void concurrentCallersShareResult() throws Exception {
+        SingleFlight<String> flight = new SingleFlight<>();
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            results.add(pool.submit(() -> flight.execute("a", () -> {
+                calls.incrementAndGet();
+                started.countDown();
+                assertTrue(release.await(10, TimeUnit.SECONDS));
+                return "result";
+            })));
+            assertTrue(started.await(10, TimeUnit.SECONDS));
+            for (int i = 0; i < 3; i++) {
+                results.add(pool.submit(() -> flight.execute("a", () -> {
+                    calls.incrementAndGet();
+                    return "other";
+                })));
+            }
+            // let the waiting callers join
+            Thread.sleep(200);
+            release.countDown();
+
+            for (Future<String> f : results) {
+                assertEquals("result", f.get(10, TimeUnit.SECONDS));
+            }
+            assertEquals(1, calls.get());
+
+            // nothing is remembered after completion
+            assertEquals("again", flight.execute("a", () -> "again"));
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    public void concurrentCallersShareException() throws Exception {
+        SingleFlight<String> flight = new SingleFlight<>();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        IOException failure = new IOException("failure");
+
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            Future<String> first = pool.submit(() -> flight.execute("a", () -> {
+                started.countDown();
+                assertTrue(release.await(10, TimeUnit.SECONDS));
+                throw failure;
+            }));
+            assertTrue(started.await(10, TimeUnit.SECONDS));
+            Future<IOException> second = pool.submit(() -> {
+                try {
+                    flight.execute("a", () -> "other");
+                    return null;
+                } catch (IOException e) {
+                    return e;
+                }
+            });
+            Thread.sleep(200);
+            release.countDown();
+
+            try {
+                first.get(10, TimeUnit.SECONDS);
+                fail("Should fail");
+            } catch (ExecutionException e) {
+                assertSame(failure, e.getCause());
+            }
+            assertSame(failure, second.get(10, TimeUnit.SECONDS));
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+}
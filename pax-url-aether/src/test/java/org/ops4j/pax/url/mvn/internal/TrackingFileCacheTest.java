@@ -0,0 +1,150 @@
+/*
+ * Copyright 2023 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.url.mvn.internal;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.aether.internal.impl.DefaultTrackingFileManager;
+import org.eclipse.aether.internal.impl.TrackingFileManager;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class TrackingFileCacheTest {
+
+    @Test
+    public void readOnceUntilChanged() throws Exception {
+        File dir = new File("target/tracking-" + UUID.randomUUID());
+        File trackingFile = new File(dir, "_pax-url-aether-remote.repositories");
+        TrackingFileManager manager = new DefaultTrackingFileManager();
+        AtomicInteger reads = new AtomicInteger();
+        TrackingFileCache cache = new TrackingFileCache(new CountingTrackingFileManager(manager, reads));
+
+        assertNull(cache.read(trackingFile));
+        manager.update(trackingFile, Collections.singletonMap("a.jar>central", ""));
+        assertTrue(cache.read(trackingFile).containsKey("a.jar>central"));
+        assertTrue(cache.read(trackingFile).containsKey("a.jar>central"));
+        assertEquals(1, reads.get());
+
+        // changed by someone else
+        manager.update(trackingFile, Collections.singletonMap("b.jar>central", "updated by other process"));
+        assertTrue(trackingFile.setLastModified(trackingFile.lastModified() + 2000));
+        assertTrue(cache.read(trackingFile).containsKey("b.jar>central"));
+        assertEquals(2, reads.get());
+    }
+
+    @Test
+    public void writeThroughUpdates() throws Exception {
+        File dir = new File("target/tracking-" + UUID.randomUUID());
+        File trackingFile = new File(dir, "_pax-url-aether-remote.repositories");
+        TrackingFileManager manager = new DefaultTrackingFileManager();
+        TrackingFileCache cache = new TrackingFileCache(manager);
+
+        cache.update(trackingFile, Collections.singletonMap("a.jar>central", ""));
+        cache.update(trackingFile, Collections.singletonMap("a.jar>", ""));
+        // visible to other processes immediately
+        Properties props = manager.read(trackingFile);
+        assertTrue(props.containsKey("a.jar>central"));
+        assertTrue(props.containsKey("a.jar>"));
+        assertEquals(props, cache.read(trackingFile));
+    }
+
+    @Test
+    public void concurrentUpdatesCoalesced() throws Exception {
+        File dir = new File("target/tracking-" + UUID.randomUUID());
+        File trackingFile = new File(dir, "_pax-url-aether-remote.repositories");
+        TrackingFileManager manager = new DefaultTrackingFileManager();
+        AtomicInteger writes = new AtomicInteger();
+        TrackingFileCache cache = new TrackingFileCache(new TrackingFileManager() {
+            @Override
+            public Properties read(File file) {
+                return manager.read(file);
+            }
+
+            @Override
+            public Properties update(File file, Map<String, String> updates) {
+                writes.incrementAndGet();
+                return manager.update(file, updates);
+            }
+
+            @Override
+            public boolean delete(File file) {
+                return manager.delete(file);
+            }
+        });
+
+        int threads = 8;
+        int updates = 50;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            int thread = t;
+            futures.add(pool.submit(() -> {
+                for (int i = 0; i < updates; i++) {
+                    cache.update(trackingFile, Collections.singletonMap(thread + "-" + i + ".jar>central", ""));
+                }
+            }));
+        }
+        for (Future<?> f : futures) {
+            f.get(30, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+
+        Properties props = manager.read(trackingFile);
+        assertEquals(threads * updates, props.size());
+        assertTrue(writes.get() <= threads * updates);
+    }
+
+    private static class CountingTrackingFileManager implements TrackingFileManager {
+        private final TrackingFileManager delegate;
+        private final AtomicInteger reads;
+
+        CountingTrackingFileManager(TrackingFileManager delegate, AtomicInteger reads) {
+            this.delegate = delegate;
+            this.reads = reads;
+        }
+
+        @Override
+        public Properties read(File file) {
+            reads.incrementAndGet();
+            return delegate.read(file);
+        }
+
+        @Override
+        public Properties update(File file, Map<String, String> updates) {
+            return delegate.update(file, updates);
+        }
+
+        @Override
+        public boolean delete(File file) {
+            return delegate.delete(file);
+        }
+    }
+
+}
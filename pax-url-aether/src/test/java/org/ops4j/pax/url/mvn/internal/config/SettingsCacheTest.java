@@ -0,0 +1,81 @@
+/*
+ * Copyright 2023 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.url.mvn.internal.config;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Properties;
+import java.util.UUID;
+
+import org.apache.maven.settings.Settings;
+import org.junit.Test;
+import org.ops4j.util.property.PropertiesPropertyResolver;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class SettingsCacheTest {
+
+    @Test
+    public void configurationsShareBuiltSettings() throws Exception {
+        File settingsFile = new File("target/settings-" + UUID.randomUUID() + ".xml");
+        Files.copy(new File("src/test/resources/settings-auth-encrypted.xml").toPath(), settingsFile.toPath());
+        localRepository = "target/" + UUID.randomUUID();
+
+        MavenConfigurationImpl config1 = config(settingsFile);
+        MavenConfigurationImpl config2 = config(settingsFile);
+        assertNotNull(config1.getSettingsFingerprint());
+        assertEquals(config1.getSettingsFingerprint(), config2.getSettingsFingerprint());
+
+        Settings settings1 = config1.getSettings();
+        Settings settings2 = config2.getSettings();
+        assertNotSame("Each configuration should have own copy of settings", settings1, settings2);
+        String password = settings1.getServer("jetty-local").getPassword();
+        assertTrue("Password should be decrypted", !password.startsWith("{"));
+        assertEquals(password, settings2.getServer("jetty-local").getPassword());
+
+        settings1.getServer("jetty-local").setPassword("changed");
+        assertEquals(password, config(settingsFile).getSettings().getServer("jetty-local").getPassword());
+
+        // different content - different settings
+        String content = new String(Files.readAllBytes(settingsFile.toPath()), StandardCharsets.UTF_8);
+        Files.write(settingsFile.toPath(), content.replace("<username>pax</username>", "<username>pax2</username>")
+                .getBytes(StandardCharsets.UTF_8));
+        MavenConfigurationImpl config3 = config(settingsFile);
+        assertNotEquals(config1.getSettingsFingerprint(), config3.getSettingsFingerprint());
+        assertEquals("pax2", config3.getSettings().getServer("jetty-local").getUsername());
+
+        // explicitly set settings don't have a fingerprint
+        config3.setSettings(new Settings());
+        assertNull(config3.getSettingsFingerprint());
+    }
+
+    private String localRepository;
+
+    private MavenConfigurationImpl config(File settingsFile) {
+        Properties properties = new Properties();
+        properties.setProperty("pid.settings", settingsFile.getAbsolutePath());
+        properties.setProperty("pid.security", "src/test/resources/settings-security.xml");
+        properties.setProperty("pid.localRepository", localRepository);
+        return new MavenConfigurationImpl(new PropertiesPropertyResolver(properties), "pid");
+    }
+
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright 2023 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.url.mvn.internal;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Properties;
+
+import org.ops4j.pax.url.mvn.internal.config.MavenConfigurationImpl;
+import org.ops4j.util.property.PropertiesPropertyResolver;
+
+/**
+ * File-based Maven repositories used as fixtures by the benchmarks, so no network access is needed.
+ */
+class BenchmarkRepositories {
+
+    static final String GROUP_ID = "org.ops4j.pax.url.benchmarks";
+
+    /** Artifact available in default repository */
+    static final String DEFAULT_ARTIFACT = "default-artifact";
+    /** Artifact available only in local repository */
+    static final String LOCAL_ARTIFACT = "local-artifact";
+    /** Artifact with many versions available in remote repository */
+    static final String RANGED_ARTIFACT = "ranged-artifact";
+
+    final File root;
+    final File defaultRepository;
+    final File localRepository;
+    final File remoteRepository;
+
+    BenchmarkRepositories() throws IOException {
+        root = Files.createTempDirectory("pax-url-benchmarks").toFile();
+        defaultRepository = new File(root, "default");
+        localRepository = new File(root, "local");
+        remoteRepository = new File(root, "remote");
+
+        // some noise, so default repository is not trivial to search
+        for (int i = 0; i < 50; i++) {
+            deploy(defaultRepository, "other-artifact-" + i, "1.0");
+        }
+        deploy(defaultRepository, DEFAULT_ARTIFACT, "1.0");
+        deploy(localRepository, LOCAL_ARTIFACT, "1.0");
+        String[] versions = new String[20];
+        for (int i = 0; i < versions.length; i++) {
+            versions[i] = "1." + i;
+        }
+        deploy(remoteRepository, RANGED_ARTIFACT, versions);
+        deploy(localRepository, RANGED_ARTIFACT, "0.9");
+    }
+
+    /**
+     * Configuration with all three repositories and without fallback repositories.
+     *
+     * @param extra additional properties (without {@code pid.} prefix)
+     * @return
+     */
+    MavenConfigurationImpl configuration(Properties extra) {
+        Properties properties = new Properties();
+        properties.setProperty("pid.localRepository", localRepository.getAbsolutePath());
+        properties.setProperty("pid.defaultRepositories", defaultRepository.toURI().toString() + "@id=default");
+        properties.setProperty("pid.repositories", remoteRepository.toURI().toString() + "@id=remote");
+        properties.setProperty("pid.useFallbackRepositories", "false");
+        properties.setProperty("pid.globalUpdatePolicy", "never");
+        if (extra != null) {
+            for (String name : extra.stringPropertyNames()) {
+                properties.setProperty("pid." + name, extra.getProperty(name));
+            }
+        }
+        return new MavenConfigurationImpl(new PropertiesPropertyResolver(properties), "pid");
+    }
+
+    void delete() throws IOException {
+        Files.walkFileTree(root.toPath(), new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException {
+                Files.delete(file);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(Path dir, IOException exc) throws IOException {
+                Files.delete(dir);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    /**
+     * Writes jar, pom (with checksums) and {@code maven-metadata.xml} for given versions of an artifact.
+     *
+     * @param repository
+     * @param artifactId
+     * @param versions
+     * @throws IOException
+     */
+    private static void deploy(File repository, String artifactId, String... versions) throws IOException {
+        File artifactDir = new File(repository, GROUP_ID.replace('.', '/') + "/" + artifactId);
+        StringBuilder metadata = new StringBuilder();
+        metadata.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<metadata>\n");
+        metadata.append("  <groupId>").append(GROUP_ID).append("</groupId>\n");
+        metadata.append("  <artifactId>").append(artifactId).append("</artifactId>\n");
+        metadata.append("  <versioning>\n");
+        metadata.append("    <latest>").append(versions[versions.length - 1]).append("</latest>\n");
+        metadata.append("    <release>").append(versions[versions.length - 1]).append("</release>\n");
+        metadata.append("    <versions>\n");
+        for (String version : versions) {
+            File versionDir = new File(artifactDir, version);
+            String base = artifactId + "-" + version;
+            write(new File(versionDir, base + ".jar"), ("jar content of " + base).getBytes(StandardCharsets.UTF_8));
+            String pom = "<project><modelVersion>4.0.0</modelVersion><groupId>" + GROUP_ID + "</groupId><artifactId>"
+                    + artifactId + "</artifactId><version>" + version + "</version></project>\n";
+            write(new File(versionDir, base + ".pom"), pom.getBytes(StandardCharsets.UTF_8));
+            metadata.append("      <version>").append(version).append("</version>\n");
+        }
+        metadata.append("    </versions>\n");
+        metadata.append("    <lastUpdated>20230101000000</lastUpdated>\n");
+        metadata.append("  </versioning>\n</metadata>\n");
+        write(new File(artifactDir, "maven-metadata.xml"), metadata.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void write(File file, byte[] content) throws IOException {
+        file.getParentFile().mkdirs();
+        Files.write(file.toPath(), content);
+        try {
+            StringBuilder sha1 = new StringBuilder();
+            for (byte b : MessageDigest.getInstance("SHA-1").digest(content)) {
+                sha1.append(String.format("%02x", b));
+            }
+            Files.write(new File(file.getParentFile(), file.getName() + ".sha1").toPath(),
+                    sha1.toString().getBytes(StandardCharsets.US_ASCII));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+    }
+
+}
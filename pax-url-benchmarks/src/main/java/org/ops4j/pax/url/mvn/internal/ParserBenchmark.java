@@ -0,0 +1,62 @@
+/*
+ * Copyright 2023 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.url.mvn.internal;
+
+import java.net.MalformedURLException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Parsing of {@code mvn:} URIs (without the protocol), which happens for every resolution. {@link #coordinates()}
+ * measures the interned (cached) parse result used by the resolver.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParserBenchmark {
+
+    @Param({
+            "org.ops4j.pax.url/pax-url-aether/3.0.0",
+            "org.ops4j.pax.url/pax-url-aether/3.0.0/xml/features",
+            "org.ops4j.pax.url/pax-url-aether/[2.0,3.0)",
+            "https://repo1.maven.org/maven2@id=central!org.ops4j.pax.url/pax-url-aether/LATEST/jar/uber"
+    })
+    public String path;
+
+    @Benchmark
+    public Parser parse() throws MalformedURLException {
+        return new Parser(path);
+    }
+
+    @Benchmark
+    public MavenCoordinates coordinates() throws MalformedURLException {
+        return MavenCoordinates.parse(path);
+    }
+
+}
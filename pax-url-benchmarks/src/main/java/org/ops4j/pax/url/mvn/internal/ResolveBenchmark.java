@@ -0,0 +1,102 @@
+/*
+ * Copyright 2023 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.url.mvn.internal;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import static org.ops4j.pax.url.mvn.internal.BenchmarkRepositories.DEFAULT_ARTIFACT;
+import static org.ops4j.pax.url.mvn.internal.BenchmarkRepositories.GROUP_ID;
+import static org.ops4j.pax.url.mvn.internal.BenchmarkRepositories.LOCAL_ARTIFACT;
+import static org.ops4j.pax.url.mvn.internal.BenchmarkRepositories.RANGED_ARTIFACT;
+
+/**
+ * Resolution of artifacts by {@link AetherBasedResolver} - in default repository, local repository and
+ * (file-based) remote repository.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResolveBenchmark {
+
+    /** {@code 0} measures the resolution itself, other values - the in-memory cache of resolved artifacts */
+    @Param({ "0", "1000" })
+    public String resolutionCacheSize;
+
+    /** {@code 0} measures resolution and merging of metadata, other values - the cache of merged metadata */
+    @Param({ "0", "1000" })
+    public String metadataCacheSize;
+
+    private BenchmarkRepositories repositories;
+    private AetherBasedResolver resolver;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        repositories = new BenchmarkRepositories();
+        Properties properties = new Properties();
+        properties.setProperty("resolutionCacheSize", resolutionCacheSize);
+        properties.setProperty("metadataCacheSize", metadataCacheSize);
+        resolver = new AetherBasedResolver(repositories.configuration(properties));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        resolver.close();
+        repositories.delete();
+    }
+
+    @Benchmark
+    public File defaultRepositoryHit() throws IOException {
+        return resolver.resolve(GROUP_ID, DEFAULT_ARTIFACT, null, "jar", "1.0");
+    }
+
+    @Benchmark
+    public File localRepositoryHit() throws IOException {
+        return resolver.resolve(GROUP_ID, LOCAL_ARTIFACT, null, "jar", "1.0");
+    }
+
+    @Benchmark
+    public File versionRange() throws IOException {
+        return resolver.resolve(GROUP_ID, RANGED_ARTIFACT, null, "jar", "[1.0,2.0)");
+    }
+
+    @Benchmark
+    public File mergedMetadata() throws IOException {
+        // merged metadata is written to a file owned by the resolver (named after the content), so it's
+        // reused by next iterations and deleted when the resolver is closed
+        return resolver.resolveMetadata(GROUP_ID, RANGED_ARTIFACT, "maven-metadata.xml", null);
+    }
+
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2023 OPS4J.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.ops4j.pax.url.mvn.internal;
+
+import java.io.IOException;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.aether.RepositorySystemSession;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Borrowing and releasing {@link RepositorySystemSession sessions} by many threads at once.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(16)
+public class SessionPoolBenchmark {
+
+    /** maximum number of pooled sessions - lower than number of threads means contention */
+    @Param({ "4", "32" })
+    public String max;
+
+    private BenchmarkRepositories repositories;
+    private AetherBasedResolver resolver;
+    private SessionPool pool;
+    private AetherBasedResolver.LocalRepositoryWithConfig repository;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        repositories = new BenchmarkRepositories();
+        Properties properties = new Properties();
+        properties.setProperty("sessionPool.max", max);
+        properties.setProperty("sessionPool.maxWait", "1000");
+        resolver = new AetherBasedResolver(repositories.configuration(properties));
+        pool = resolver.getSessionPool();
+        repository = resolver.selectDefaultRepositories().get(0);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        resolver.close();
+        repositories.delete();
+    }
+
+    @Benchmark
+    public RepositorySystemSession borrowAndRelease() {
+        RepositorySystemSession session = pool.borrow(repository);
+        pool.release(session);
+        return session;
+    }
+
+}